@@ -2,6 +2,7 @@ package ch.epfl.tchu;
 
 import java.util.*;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Multiensemble trié et immuable.
@@ -10,9 +11,48 @@ import java.util.stream.Stream;
  *            le type des éléments du multiensemble.
  */
 public final class SortedBag<E extends Comparable<E>> implements Iterable<E> {
+    // Valeurs des types énumérés, partagées par tous les multiensembles.
+    private static final ClassValue<Object[]> ENUM_CONSTANTS = new ClassValue<>() {
+        @Override
+        protected Object[] computeValue(Class<?> type) {
+            return type.getEnumConstants();
+        }
+    };
+
+    // Sous-ensembles déjà calculés des petits multiensembles (p.ex. des mains
+    // de cartes), par multiensemble et par taille.
+    private static final int SUBSETS_CACHE_MAX_BAG_SIZE = 32;
+    private static final int SUBSETS_CACHE_CAPACITY = 1024;
+    private static final Map<Map.Entry<SortedBag<?>, Integer>, Set<?>> SUBSETS_CACHE = Collections
+            .synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(
+                        Map.Entry<Map.Entry<SortedBag<?>, Integer>, Set<?>> eldest) {
+                    return size() > SUBSETS_CACHE_CAPACITY;
+                }
+            });
+
     // Table associant sa multiplicité à chaque élément de l'ensemble.
     // Invariant : toutes les multiplicités sont strictement positives (> 0).
-    private final SortedMap<E, Integer> elements;
+    // Pour un multiensemble d'éléments de type énuméré, elle n'est construite
+    // qu'à la demande, à partir du vecteur des multiplicités.
+    private SortedMap<E, Integer> elements;
+
+    // Pour un multiensemble d'éléments de type énuméré (p.ex. des cartes) :
+    // toutes les valeurs du type et le vecteur des multiplicités indexé par
+    // ordinal. Sinon, universe et counts sont nuls.
+    private final E[] universe;
+    private final int[] counts;
+
+    // Pour les autres multiensembles : les éléments distincts dans l'ordre, et
+    // pour chacun d'eux l'index (exclusif) de sa dernière occurrence, afin que
+    // get puisse procéder par recherche dichotomique. Sinon, keys et ends
+    // sont nuls.
+    private final E[] keys;
+    private final int[] ends;
+
+    // Taille du multiensemble.
+    private final int size;
 
     /**
      * Crée un multiensemble vide.
@@ -54,7 +94,7 @@ public final class SortedBag<E extends Comparable<E>> implements Iterable<E> {
      */
     public static <E extends Comparable<E>> SortedBag<E> of(int n, E e) {
         Preconditions.checkArgument(0 <= n);
-        return n == 0 ? of() : new SortedBag<>(new TreeMap<>(Map.of(e, n)));
+        return n == 0 ? of() : new Builder<E>().add(n, e).build();
     }
 
     /**
@@ -79,12 +119,7 @@ public final class SortedBag<E extends Comparable<E>> implements Iterable<E> {
     public static <E extends Comparable<E>> SortedBag<E> of(int n1, E e1,
             int n2, E e2) {
         Preconditions.checkArgument(0 <= n1 && 0 <= n2);
-        var elements = new TreeMap<E, Integer>();
-        if (n1 > 0)
-            elements.put(e1, n1);
-        if (n2 > 0)
-            elements.put(e2, n2);
-        return new SortedBag<>(elements);
+        return new Builder<E>().add(n1, e1).add(n2, e2).build();
     }
 
     /**
@@ -100,6 +135,8 @@ public final class SortedBag<E extends Comparable<E>> implements Iterable<E> {
      */
     public static <E extends Comparable<E>> SortedBag<E> of(
             Iterable<E> iterable) {
+        if (iterable instanceof SortedBag<?>)
+            return (SortedBag<E>) iterable;
         var builder = new Builder<E>();
         iterable.forEach(builder::add);
         return builder.build();
@@ -109,9 +146,63 @@ public final class SortedBag<E extends Comparable<E>> implements Iterable<E> {
     // Les multiplicités doivent toutes être strictement positives.
     // Attention: la table n'est pas copiée et ne doit donc jamais être modifiée
     // !
+    @SuppressWarnings("unchecked")
     private SortedBag(SortedMap<E, Integer> elements) {
         assert elements.values().stream().allMatch(n -> n > 0);
         this.elements = Collections.unmodifiableSortedMap(elements);
+        this.universe = null;
+        this.counts = null;
+        this.keys = (E[]) new Comparable<?>[elements.size()];
+        this.ends = new int[elements.size()];
+        var i = 0;
+        var end = 0;
+        for (var elementAndCount : elements.entrySet()) {
+            end += elementAndCount.getValue();
+            keys[i] = elementAndCount.getKey();
+            ends[i] = end;
+            i++;
+        }
+        this.size = end;
+    }
+
+    // Construit un multiensemble d'éléments de type énuméré avec le vecteur
+    // des multiplicités donné, dont la somme vaut size.
+    // Attention: le vecteur n'est pas copié et ne doit donc jamais être
+    // modifié !
+    private SortedBag(E[] universe, int[] counts, int size) {
+        assert Arrays.stream(counts).sum() == size;
+        this.elements = null;
+        this.universe = universe;
+        this.counts = counts;
+        this.keys = null;
+        this.ends = null;
+        this.size = size;
+    }
+
+    // Retourne toutes les valeurs du type de l'élément donné s'il s'agit d'un
+    // type énuméré, null sinon.
+    @SuppressWarnings("unchecked")
+    private static <E> E[] universeOf(E element) {
+        return element instanceof Enum<?>
+                ? (E[]) ENUM_CONSTANTS
+                        .get(((Enum<?>) element).getDeclaringClass())
+                : null;
+    }
+
+    private static int ordinal(Object element) {
+        return ((Enum<?>) element).ordinal();
+    }
+
+    // Retourne la table des multiplicités, en la construisant au besoin.
+    private SortedMap<E, Integer> elements() {
+        if (elements == null) {
+            var newElements = new TreeMap<E, Integer>();
+            for (var i = 0; i < counts.length; i++)
+                if (counts[i] > 0)
+                    newElements.put(universe[i], counts[i]);
+            elements = Collections.unmodifiableSortedMap(newElements);
+        }
+        return elements;
     }
 
     /**
@@ -120,7 +211,7 @@ public final class SortedBag<E extends Comparable<E>> implements Iterable<E> {
      * @return vrai ssi le multiensemble est vide.
      */
     public boolean isEmpty() {
-        return elements.isEmpty();
+        return size == 0;
     }
 
     /**
@@ -129,7 +220,7 @@ public final class SortedBag<E extends Comparable<E>> implements Iterable<E> {
      * @return le nombre d'éléments dans le multiensemble.
      */
     public int size() {
-        return elements.values().stream().mapToInt(Integer::intValue).sum();
+        return size;
     }
 
     /**
@@ -141,6 +232,8 @@ public final class SortedBag<E extends Comparable<E>> implements Iterable<E> {
      *         au multiensemble
      */
     public int countOf(E element) {
+        if (counts != null)
+            return counts[ordinal(element)];
         return elements.getOrDefault(element, 0);
     }
 
@@ -153,7 +246,7 @@ public final class SortedBag<E extends Comparable<E>> implements Iterable<E> {
      * @return vrai ssi <code>element</code> appartient au multiensemble
      */
     public boolean contains(E element) {
-        return elements.containsKey(element);
+        return countOf(element) > 0;
     }
 
     /**
@@ -167,7 +260,13 @@ public final class SortedBag<E extends Comparable<E>> implements Iterable<E> {
      *         <code>this</code>
      */
     public boolean contains(SortedBag<E> that) {
-        return that.elements.entrySet().stream()
+        if (counts != null && that.counts != null) {
+            for (var i = 0; i < counts.length; i++)
+                if (that.counts[i] > counts[i])
+                    return false;
+            return true;
+        }
+        return that.toMap().entrySet().stream()
                 .allMatch(e -> e.getValue() <= countOf(e.getKey()));
     }
 
@@ -181,14 +280,18 @@ public final class SortedBag<E extends Comparable<E>> implements Iterable<E> {
      *             si l'index est invalide
      */
     public E get(int index) {
-        Objects.checkIndex(index, size());
-        for (var elementsAndCount : elements.entrySet()) {
-            var count = elementsAndCount.getValue();
-            if (index < count)
-                return elementsAndCount.getKey();
-            index -= count;
+        Objects.checkIndex(index, size);
+        if (counts != null) {
+            for (var i = 0; i < counts.length; i++) {
+                if (index < counts[i])
+                    return universe[i];
+                index -= counts[i];
+            }
+            throw new Error(); // ne devrait jamais se produire
         }
-        throw new Error(); // ne devrait jamais se produire
+        // premier élément dont la dernière occurrence se trouve après index
+        var i = Arrays.binarySearch(ends, index + 1);
+        return keys[i >= 0 ? i : -(i + 1)];
     }
 
     /**
@@ -199,8 +302,18 @@ public final class SortedBag<E extends Comparable<E>> implements Iterable<E> {
      * @return l'union de <code>this</code> et de <code>that</code>
      */
     public SortedBag<E> union(SortedBag<E> that) {
-        var newElements = new TreeMap<>(elements);
-        that.elements.forEach((e, n) -> newElements.merge(e, n, Integer::sum));
+        if (that.isEmpty())
+            return this;
+        if (isEmpty())
+            return that;
+        if (counts != null && that.counts != null) {
+            var newCounts = new int[counts.length];
+            for (var i = 0; i < counts.length; i++)
+                newCounts[i] = counts[i] + that.counts[i];
+            return new SortedBag<>(universe, newCounts, size + that.size);
+        }
+        var newElements = new TreeMap<>(elements());
+        that.toMap().forEach((e, n) -> newElements.merge(e, n, Integer::sum));
         return new SortedBag<>(newElements);
     }
 
@@ -213,15 +326,29 @@ public final class SortedBag<E extends Comparable<E>> implements Iterable<E> {
      * @return la différence entre <code>this</code> et <code>that</code>
      */
     public SortedBag<E> difference(SortedBag<E> that) {
-        var newElements = new TreeMap<>(elements);
-        that.elements.forEach((eR, nR) -> newElements.compute(eR,
+        if (that.isEmpty() || isEmpty())
+            return this;
+        if (counts != null && that.counts != null) {
+            var newCounts = new int[counts.length];
+            var newSize = 0;
+            for (var i = 0; i < counts.length; i++) {
+                newCounts[i] = Math.max(counts[i] - that.counts[i], 0);
+                newSize += newCounts[i];
+            }
+            return new SortedBag<>(universe, newCounts, newSize);
+        }
+        var newElements = new TreeMap<>(elements());
+        that.toMap().forEach((eR, nR) -> newElements.compute(eR,
                 (e, n) -> n != null && n > nR ? n - nR : null));
         return new SortedBag<>(newElements);
     }
 
     /**
      * Retourne tous les sous-ensembles du multiensemble ayant une taille
-     * donnée.
+     * donnée. Les sous-ensembles sont énumérés dans l'ordre lexicographique
+     * décroissant de leurs multiplicités, c-à-d en commençant par celui qui
+     * contient le plus possible des plus petits éléments, et l'ensemble
+     * retourné, immuable, les fournit dans cet ordre.
      * 
      * @param size
      *            la taille des sous-ensembles à retourner
@@ -232,17 +359,85 @@ public final class SortedBag<E extends Comparable<E>> implements Iterable<E> {
      *             du multiensemble
      */
     public Set<SortedBag<E>> subsetsOfSize(int size) {
-        Preconditions.checkArgument(0 <= size && size <= size());
-        if (size == 0)
-            return Set.of(SortedBag.of());
-
-        var result = new HashSet<SortedBag<E>>();
-        for (var e1 : elements.keySet()) {
-            var s1 = SortedBag.of(e1);
-            this.difference(s1).subsetsOfSize(size - 1)
-                    .forEach(e -> result.add(s1.union(e)));
+        Preconditions.checkArgument(0 <= size && size <= this.size);
+        if (this.size > SUBSETS_CACHE_MAX_BAG_SIZE)
+            return computeSubsetsOfSize(size);
+
+        var key = Map.<SortedBag<?>, Integer> entry(this, size);
+        @SuppressWarnings("unchecked")
+        var subsets = (Set<SortedBag<E>>) SUBSETS_CACHE.get(key);
+        if (subsets == null) {
+            subsets = computeSubsetsOfSize(size);
+            SUBSETS_CACHE.put(key, subsets);
         }
-        return result;
+        return subsets;
+    }
+
+    // Énumère les vecteurs de multiplicités de somme size bornés par ceux du
+    // multiensemble, sans jamais produire deux fois le même sous-ensemble.
+    private Set<SortedBag<E>> computeSubsetsOfSize(int size) {
+        var distinct = new ArrayList<E>();
+        var distinctCounts = new int[this.size];
+        if (counts != null) {
+            for (var i = 0; i < counts.length; i++) {
+                if (counts[i] > 0) {
+                    distinctCounts[distinct.size()] = counts[i];
+                    distinct.add(universe[i]);
+                }
+            }
+        } else {
+            for (var i = 0; i < keys.length; i++) {
+                distinctCounts[i] = ends[i] - (i == 0 ? 0 : ends[i - 1]);
+                distinct.add(keys[i]);
+            }
+        }
+        var k = distinct.size();
+        // capacity[i] : nombre d'éléments à partir du i-ème élément distinct
+        var capacity = new int[k + 1];
+        for (var i = k - 1; i >= 0; i--)
+            capacity[i] = capacity[i + 1] + distinctCounts[i];
+
+        var result = new LinkedHashSet<SortedBag<E>>();
+        var x = new int[k];
+        fillGreedily(x, 0, size, distinctCounts);
+        while (true) {
+            result.add(subsetOf(distinct, x, size));
+            // la dernière position pouvant céder un élément à celles qui la
+            // suivent en perd un, et ces dernières sont à nouveau remplies
+            var i = k - 1;
+            var suffix = 0;
+            while (i >= 0 && (x[i] == 0 || capacity[i + 1] == suffix)) {
+                suffix += x[i];
+                i--;
+            }
+            if (i < 0)
+                break;
+            x[i]--;
+            fillGreedily(x, i + 1, suffix + 1, distinctCounts);
+        }
+        return Collections.unmodifiableSet(result);
+    }
+
+    private static void fillGreedily(int[] x, int from, int count,
+            int[] distinctCounts) {
+        for (var i = from; i < x.length; i++) {
+            x[i] = Math.min(distinctCounts[i], count);
+            count -= x[i];
+        }
+    }
+
+    private SortedBag<E> subsetOf(List<E> distinct, int[] x, int size) {
+        if (counts != null) {
+            var subsetCounts = new int[universe.length];
+            for (var i = 0; i < x.length; i++)
+                subsetCounts[ordinal(distinct.get(i))] = x[i];
+            return new SortedBag<>(universe, subsetCounts, size);
+        }
+        var subsetElements = new TreeMap<E, Integer>();
+        for (var i = 0; i < x.length; i++)
+            if (x[i] > 0)
+                subsetElements.put(distinct.get(i), x[i]);
+        return new SortedBag<>(subsetElements);
     }
 
     /**
@@ -251,7 +446,13 @@ public final class SortedBag<E extends Comparable<E>> implements Iterable<E> {
      * @return une liste contenant les éléments de <code>this</code>
      */
     public List<E> toList() {
-        var list = new ArrayList<E>(size());
+        var list = new ArrayList<E>(size);
+        if (counts != null) {
+            for (var i = 0; i < counts.length; i++)
+                for (var n = 0; n < counts[i]; n++)
+                    list.add(universe[i]);
+            return list;
+        }
         elements.forEach((v, n) -> list.addAll(Collections.nCopies(n, v)));
         return list;
     }
@@ -262,6 +463,8 @@ public final class SortedBag<E extends Comparable<E>> implements Iterable<E> {
      * @return un flot des éléments de <code>this</code>
      */
     public Stream<E> stream() {
+        if (counts != null)
+            return StreamSupport.stream(spliterator(), false);
         var builder = Stream.<E> builder();
         elements.forEach((v, n) -> {
             for (var i = 0; i < n; i++)
@@ -277,9 +480,42 @@ public final class SortedBag<E extends Comparable<E>> implements Iterable<E> {
      */
     @Override
     public Iterator<E> iterator() {
-        return stream().iterator();
+        if (counts == null)
+            return stream().iterator();
+        return new Iterator<E>() {
+            private int i = 0;
+            private int n = 0;
+
+            @Override
+            public boolean hasNext() {
+                while (i < counts.length && n == counts[i]) {
+                    i++;
+                    n = 0;
+                }
+                return i < counts.length;
+            }
+
+            @Override
+            public E next() {
+                if (!hasNext())
+                    throw new NoSuchElementException();
+                n++;
+                return universe[i];
+            }
+        };
+    }
+
+    /**
+     * Retourne un itérateur fractionnable sur les éléments du multiensemble.
+     * 
+     * @return un itérateur fractionnable sur les éléments de <code>this</code>
+     */
+    @Override
+    public Spliterator<E> spliterator() {
+        return Spliterators.spliterator(iterator(), size(),
+                Spliterator.ORDERED | Spliterator.SORTED
+                        | Spliterator.NONNULL);
     }
-    
 
     /**
      * Retourne une table (immuable) associant sa multiplicité à chaque élément
@@ -289,7 +525,7 @@ public final class SortedBag<E extends Comparable<E>> implements Iterable<E> {
      *         <code>this</code>
      */
     public Map<E, Integer> toMap() {
-        return elements;
+        return elements();
     }
 
     /**
@@ -300,7 +536,7 @@ public final class SortedBag<E extends Comparable<E>> implements Iterable<E> {
      * @return l'ensemble des éléments du multiensemble.
      */
     public Set<E> toSet() {
-        return elements.keySet();
+        return elements().keySet();
     }
 
     /**
@@ -310,6 +546,15 @@ public final class SortedBag<E extends Comparable<E>> implements Iterable<E> {
      */
     @Override
     public int hashCode() {
+        if (counts != null) {
+            // même valeur que celle de la table des multiplicités
+            var hash = 0;
+            for (var i = 0; i < counts.length; i++)
+                if (counts[i] > 0)
+                    hash += universe[i].hashCode()
+                            ^ Integer.hashCode(counts[i]);
+            return hash;
+        }
         return elements.hashCode();
     }
 
@@ -324,8 +569,13 @@ public final class SortedBag<E extends Comparable<E>> implements Iterable<E> {
      */
     @Override
     public boolean equals(Object that) {
-        return (that instanceof SortedBag<?>)
-                && (elements.equals(((SortedBag<?>) that).elements));
+        if (!(that instanceof SortedBag<?>))
+            return false;
+        var thatBag = (SortedBag<?>) that;
+        if (counts != null && thatBag.counts != null
+                && universe == thatBag.universe)
+            return Arrays.equals(counts, thatBag.counts);
+        return toMap().equals(thatBag.toMap());
     }
 
     /**
@@ -336,7 +586,7 @@ public final class SortedBag<E extends Comparable<E>> implements Iterable<E> {
     @Override
     public String toString() {
         var j = new StringJoiner(", ", "{", "}");
-        elements.forEach((e, n) -> j.add((n > 1 ? n + "×" : "") + e));
+        toMap().forEach((e, n) -> j.add((n > 1 ? n + "×" : "") + e));
         return j.toString();
     }
 
@@ -348,6 +598,9 @@ public final class SortedBag<E extends Comparable<E>> implements Iterable<E> {
      */
     public static final class Builder<E extends Comparable<E>> {
         private final SortedMap<E, Integer> elements = new TreeMap<>();
+        private E[] universe = null;
+        private int[] counts = null;
+        private int size = 0;
 
         /**
          * Ajoute un nombre donné d'occurrences d'un élément au bâtisseur.
@@ -362,8 +615,18 @@ public final class SortedBag<E extends Comparable<E>> implements Iterable<E> {
          */
         public Builder<E> add(int count, E element) {
             Preconditions.checkArgument(0 <= count);
-            if (count > 0)
+            if (count == 0)
+                return this;
+            if (counts == null && elements.isEmpty()) {
+                universe = universeOf(element);
+                if (universe != null)
+                    counts = new int[universe.length];
+            }
+            if (counts != null)
+                counts[ordinal(element)] += count;
+            else
                 elements.merge(element, count, Integer::sum);
+            size += count;
             return this;
         }
 
@@ -386,7 +649,12 @@ public final class SortedBag<E extends Comparable<E>> implements Iterable<E> {
          * @return le bâtisseur (<code>this</code>)
          */
         public Builder<E> add(SortedBag<E> that) {
-            that.elements.forEach((e, c) -> elements.merge(e, c, Integer::sum));
+            if (that.counts != null) {
+                for (var i = 0; i < that.counts.length; i++)
+                    add(that.counts[i], that.universe[i]);
+            } else {
+                that.elements.forEach((e, c) -> add(c, e));
+            }
             return this;
         }
 
@@ -396,7 +664,7 @@ public final class SortedBag<E extends Comparable<E>> implements Iterable<E> {
          * @return vrai ssi le bâtisseur est actuellement vide.
          */
         public boolean isEmpty() {
-            return elements.isEmpty();
+            return size == 0;
         }
 
         /**
@@ -405,7 +673,7 @@ public final class SortedBag<E extends Comparable<E>> implements Iterable<E> {
          * @return le nombre d'éléments ajoutés au bâtisseur jusqu'à présent
          */
         public int size() {
-            return elements.values().stream().mapToInt(Integer::intValue).sum();
+            return size;
         }
 
         /**
@@ -416,6 +684,8 @@ public final class SortedBag<E extends Comparable<E>> implements Iterable<E> {
          *         <code>this</code>
          */
         public SortedBag<E> build() {
+            if (counts != null)
+                return new SortedBag<>(universe, counts.clone(), size);
             return new SortedBag<>(new TreeMap<>(elements));
         }
     }
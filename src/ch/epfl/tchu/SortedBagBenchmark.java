@@ -0,0 +1,67 @@
+/*
+ *	Author:      Ahmed Kallala (315594)
+ *	Date:        13 juin 2021
+ */
+
+package ch.epfl.tchu;
+
+import ch.epfl.tchu.game.ChMap;
+import ch.epfl.tchu.game.Constants;
+
+/**
+ * Classe mesurant la durée des appels à SortedBag.size et SortedBag.get, sur
+ * le multiensemble des billets de la carte (dont les éléments ne sont pas
+ * d'un type énuméré) et sur celui de toutes les cartes du jeu (dont les
+ * éléments sont d'un type énuméré) : chaque répétition demande la taille de
+ * chaque multiensemble puis chacun de ses éléments par index, et la durée
+ * moyenne d'un appel est affichée
+ * 
+ * Argument (facultatif) : nombre de répétitions
+ * 
+ * @author ahmedkallala
+ *
+ */
+public final class SortedBagBenchmark {
+    private static final int DEFAULT_REPETITIONS = 200_000;
+
+    private SortedBagBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        int repetitions = args.length > 0 ? Integer.parseInt(args[0])
+                : DEFAULT_REPETITIONS;
+
+        measure("billets", SortedBag.of(ChMap.tickets()), repetitions);
+        measure("cartes", Constants.ALL_CARDS, repetitions);
+    }
+
+    private static <E extends Comparable<E>> void measure(String name,
+            SortedBag<E> bag, int repetitions) {
+        int size = bag.size();
+        long sizeNanos = 0;
+        long getNanos = 0;
+        // Empêche le compilateur à la volée d'éliminer les appels mesurés
+        int checksum = 0;
+        // Le premier quart des répétitions sert d'échauffement
+        for (int i = -repetitions / 4; i < repetitions; ++i) {
+            long start = System.nanoTime();
+            for (int j = 0; j < size; ++j) {
+                checksum += bag.size();
+            }
+            long middle = System.nanoTime();
+            for (int j = 0; j < size; ++j) {
+                checksum += bag.get(j).hashCode();
+            }
+            long end = System.nanoTime();
+            if (i >= 0) {
+                sizeNanos += middle - start;
+                getNanos += end - middle;
+            }
+        }
+
+        long calls = (long) repetitions * size;
+        System.out.printf("%s (%d éléments) : size %.1f ns, get %.1f ns (%d)%n",
+                name, size, (double) sizeNanos / calls,
+                (double) getNanos / calls, checksum);
+    }
+}
@@ -5,20 +5,20 @@
 
 package ch.epfl.tchu.game;
 
-import java.util.Collections;
-import java.util.List;
 import java.util.Random;
 
 import ch.epfl.tchu.Preconditions;
 import ch.epfl.tchu.SortedBag;
 
 public final class Deck<C extends Comparable<C>> {
-    private final int size;
-    private final List<C> cards;
+    // Les cartes sont partagées par tous les tas obtenus en retirant des
+    // cartes du sommet, seul l'index de la carte au sommet change
+    private final C[] cards;
+    private final int top;
 
-    private Deck(int size, List<C> cards) {
-        this.size = size;
+    private Deck(C[] cards, int top) {
         this.cards = cards;
+        this.top = top;
     }
 
     /**
@@ -37,16 +37,28 @@ public final class Deck<C extends Comparable<C>> {
      */
     public static <C extends Comparable<C>> Deck<C> of(SortedBag<C> cards,
             Random rng) {
-        List<C> c = cards.toList();
-        Collections.shuffle(c, rng);
-        return new Deck<C>(cards.size(), c);
+        @SuppressWarnings("unchecked")
+        C[] c = (C[]) new Comparable<?>[cards.size()];
+        int i = 0;
+        for (C card : cards) {
+            c[i++] = card;
+        }
+        // même mélange que Collections.shuffle, pour qu'un générateur donné
+        // produise toujours le même tas
+        for (int j = c.length; j > 1; --j) {
+            int k = rng.nextInt(j);
+            C tmp = c[j - 1];
+            c[j - 1] = c[k];
+            c[k] = tmp;
+        }
+        return new Deck<C>(c, 0);
     }
 
     /**
      * @return size(int) la taille du tas
      */
     public int size() {
-        return size;
+        return cards.length - top;
     }
 
     /**
@@ -55,7 +67,7 @@ public final class Deck<C extends Comparable<C>> {
      * @return vrai si le tas est vide et faux sinon
      */
     public boolean isEmpty() {
-        return cards.isEmpty();
+        return top == cards.length;
     }
 
     /**
@@ -66,7 +78,7 @@ public final class Deck<C extends Comparable<C>> {
      */
     public C topCard() {
         Preconditions.checkArgument(!isEmpty());
-        return cards.get(0);
+        return cards[top];
     }
 
     /**
@@ -78,7 +90,7 @@ public final class Deck<C extends Comparable<C>> {
      */
     public Deck<C> withoutTopCard() {
         Preconditions.checkArgument(!isEmpty());
-        return new Deck<C>(size - 1, cards.subList(1, size));
+        return new Deck<C>(cards, top + 1);
     }
 
     /**
@@ -92,10 +104,10 @@ public final class Deck<C extends Comparable<C>> {
      *        (inclus) et la taille du tas (incluse)
      */
     public SortedBag<C> topCards(int count) {
-        Preconditions.checkArgument(count >= 0 && count <= size);
+        Preconditions.checkArgument(count >= 0 && count <= size());
         SortedBag.Builder<C> topCards = new SortedBag.Builder<>();
-        for (int i = 0; i < count; ++i) {
-            topCards.add(cards.get(i));
+        for (int i = top; i < top + count; ++i) {
+            topCards.add(cards[i]);
         }
         return topCards.build();
     }
@@ -112,8 +124,8 @@ public final class Deck<C extends Comparable<C>> {
      *        0(inclus) et la taille du tas(incluse)
      */
     public Deck<C> withoutTopCards(int count) {
-        Preconditions.checkArgument(!(count < 0 || count > size));
-        return new Deck<C>(size - count, cards.subList(count, size));
+        Preconditions.checkArgument(!(count < 0 || count > size()));
+        return new Deck<C>(cards, top + count);
     }
 
 }
@@ -10,12 +10,12 @@ import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.function.Supplier;
 
 import ch.epfl.tchu.Preconditions;
 import ch.epfl.tchu.SortedBag;
 import ch.epfl.tchu.game.Player.TurnKind;
 import ch.epfl.tchu.game.Route.Level;
-import ch.epfl.tchu.gui.Info;
 
 public final class Game {
     private final static int CARD_DRAWS_PER_TURN = 2;
@@ -46,17 +46,46 @@ public final class Game {
     public static void play(Map<PlayerId, Player> players,
             Map<PlayerId, String> playerNames, SortedBag<Ticket> tickets,
             Random rng) {
+        play(players, playerNames, tickets, rng, true);
+    }
+
+    /**
+     * Méthode qui fait jouer une partie de tCHu comme play(players,
+     * playerNames, tickets, rng), mais qui permet de ne pas transmettre aux
+     * joueurs les informations sur le déroulement de la partie : si withInfo
+     * est faux, aucun message n'est construit et receiveInfo n'est jamais
+     * appelée, ce qui convient aux parties simulées entre joueurs automatiques;
+     * les joueurs sont en revanche toujours informés de l'état de la partie
+     * avant chacune de leurs décisions
+     * 
+     * @param players(Map<PlayerId,
+     *            Player> players) les joueurs de la partie
+     * @param playerNames(Map<PlayerId,
+     *            String> playerNames) les noms des joueurs de la partie
+     * @param tickets(SortedBag<Ticket>)
+     *            les billets disponibles pour la partie à jouer
+     * @param rng(Random)
+     *            le générateur aléatoire utilisé
+     * @param withInfo(boolean)
+     *            vrai ssi les informations doivent être transmises aux joueurs
+     * @return les points finaux de chaque joueur, bonus du plus long chemin
+     *         compris
+     * @throws IllegalArgumentException
+     *             si l'une des deux tables associatives a une taille différente
+     *             de 2
+     */
+    public static Map<PlayerId, Integer> play(Map<PlayerId, Player> players,
+            Map<PlayerId, String> playerNames, SortedBag<Ticket> tickets,
+            Random rng, boolean withInfo) {
         Preconditions.checkArgument(players.size() == PlayerId.COUNT
                 && playerNames.size() == PlayerId.COUNT);
-        Map<PlayerId, Info> infoPlayers = new EnumMap<>(PlayerId.class);
         for (PlayerId id : PlayerId.ALL) {
-            infoPlayers.put(id, new Info(playerNames.get(id)));
             players.get(id).initPlayers(id, playerNames);
         }
         GameState gameState = GameState.initial(tickets, rng);
-        receiveInfo(players,
-                new Info(playerNames.get(gameState.currentPlayerId()))
-                        .willPlayFirst());
+        PlayerId firstPlayer = gameState.currentPlayerId();
+        receiveInfo(players, playerNames, withInfo,
+                () -> InfoEvent.willPlayFirst(firstPlayer));
         players.get(gameState.currentPlayerId()).setInitialTicketChoice(
                 gameState.topTickets(Constants.INITIAL_TICKETS_COUNT));
         gameState = gameState
@@ -75,34 +104,42 @@ public final class Game {
                 .get(gameState.currentPlayerId().next()).chooseInitialTickets();
         gameState = gameState.withInitiallyChosenTickets(
                 gameState.currentPlayerId().next(), chosenTickets2);
-        receiveInfo(players, infoPlayers.get(gameState.currentPlayerId())
-                .keptTickets(chosenTickets1.size()));
-        receiveInfo(players, infoPlayers.get(gameState.currentPlayerId().next())
-                .keptTickets(chosenTickets2.size()));
+        receiveInfo(players, playerNames, withInfo, () -> InfoEvent
+                .keptTickets(firstPlayer, chosenTickets1.size()));
+        receiveInfo(players, playerNames, withInfo, () -> InfoEvent
+                .keptTickets(firstPlayer.next(), chosenTickets2.size()));
         while (true) {
 
             PlayerId lastPlayer = gameState.lastPlayer();
             if (lastPlayer == gameState.currentPlayerId()) {
-                receiveInfo(players,
-                        new Info(playerNames.get(lastPlayer)).lastTurnBegins(
-                                gameState.playerState(lastPlayer).carCount()));
-                gameState = nextTurn(players, gameState, playerNames, rng);
+                int carCount = gameState.playerState(lastPlayer).carCount();
+                receiveInfo(players, playerNames, withInfo,
+                        () -> InfoEvent.lastTurnBegins(lastPlayer, carCount));
+                gameState = nextTurn(players, playerNames, gameState, rng,
+                        withInfo);
                 gameState = gameState.forNextTurn();
-                gameState = nextTurn(players, gameState, playerNames, rng);
-                endOfGame(gameState, players, infoPlayers, playerNames);
-                break;
+                gameState = nextTurn(players, playerNames, gameState, rng,
+                        withInfo);
+                return endOfGame(gameState, players, playerNames, withInfo);
             } else {
-                gameState = nextTurn(players, gameState, playerNames, rng);
+                gameState = nextTurn(players, playerNames, gameState, rng,
+                        withInfo);
                 gameState = gameState.forNextTurn();
             }
         }
 
     }
 
+    // L'information n'est construite que si elle doit effectivement être
+    // transmise ; le message correspondant est construit par chaque joueur
     private static void receiveInfo(Map<PlayerId, Player> players,
-            String info) {
-        for (PlayerId id : PlayerId.ALL) {
-            players.get(id).receiveInfo(info);
+            Map<PlayerId, String> playerNames, boolean withInfo,
+            Supplier<InfoEvent> info) {
+        if (withInfo) {
+            InfoEvent event = info.get();
+            for (PlayerId id : PlayerId.ALL) {
+                players.get(id).receiveInfo(event, playerNames);
+            }
         }
     }
 
@@ -114,26 +151,26 @@ public final class Game {
     }
 
     private static GameState nextTurn(Map<PlayerId, Player> players,
-            GameState gameState, Map<PlayerId, String> playerNames,
-            Random rng) {
+            Map<PlayerId, String> playerNames, GameState gameState, Random rng,
+            boolean withInfo) {
         Player currentPlayer = players.get(gameState.currentPlayerId());
         PlayerState currentPlayerState = gameState.currentPlayerState();
-        Info currentPlayerInfo = new Info(
-                playerNames.get(gameState.currentPlayerId()));
-        receiveInfo(players, currentPlayerInfo.canPlay());
+        PlayerId currentId = gameState.currentPlayerId();
+        receiveInfo(players, playerNames, withInfo,
+                () -> InfoEvent.canPlay(currentId));
         updateState(players, gameState);
         TurnKind turnKind = currentPlayer.nextTurn();
         switch (turnKind) {
         case DRAW_TICKETS:
-            receiveInfo(players, currentPlayerInfo
-                    .drewTickets(Constants.IN_GAME_TICKETS_COUNT));
+            receiveInfo(players, playerNames, withInfo, () -> InfoEvent
+                    .drewTickets(currentId, Constants.IN_GAME_TICKETS_COUNT));
             SortedBag<Ticket> chosenTickets = currentPlayer.chooseTickets(
                     gameState.topTickets(Constants.IN_GAME_TICKETS_COUNT));
             gameState = gameState.withChosenAdditionalTickets(
                     gameState.topTickets(Constants.IN_GAME_TICKETS_COUNT),
                     chosenTickets);
-            receiveInfo(players,
-                    currentPlayerInfo.keptTickets(chosenTickets.size()));
+            receiveInfo(players, playerNames, withInfo, () -> InfoEvent
+                    .keptTickets(currentId, chosenTickets.size()));
             break;
 
         case DRAW_CARDS:
@@ -142,11 +179,13 @@ public final class Game {
                 updateState(players, gameState);
                 int slot = currentPlayer.drawSlot();
                 if (slot == Constants.DECK_SLOT) {
-                    receiveInfo(players, currentPlayerInfo.drewBlindCard());
+                    receiveInfo(players, playerNames, withInfo,
+                            () -> InfoEvent.drewBlindCard(currentId));
                     gameState = gameState.withBlindlyDrawnCard();
                 } else {
-                    receiveInfo(players, currentPlayerInfo.drewVisibleCard(
-                            gameState.cardState().faceUpCard(slot)));
+                    Card drawnCard = gameState.cardState().faceUpCard(slot);
+                    receiveInfo(players, playerNames, withInfo, () -> InfoEvent
+                            .drewVisibleCard(currentId, drawnCard));
                     gameState = gameState.withDrawnFaceUpCard(slot);
                 }
             }
@@ -156,8 +195,9 @@ public final class Game {
             Route claimedRoute = currentPlayer.claimedRoute();
             SortedBag<Card> claimCards = currentPlayer.initialClaimCards();
             if (claimedRoute.level() == Level.UNDERGROUND) {
-                receiveInfo(players, currentPlayerInfo
-                        .attemptsTunnelClaim(claimedRoute, claimCards));
+                receiveInfo(players, playerNames, withInfo,
+                        () -> InfoEvent.attemptsTunnelClaim(currentId,
+                                claimedRoute, claimCards));
                 SortedBag.Builder<Card> drawnCardsBuilder = new SortedBag.Builder<>();
                 for (int i = 0; i < Constants.ADDITIONAL_TUNNEL_CARDS; ++i) {
                     gameState = gameState.withCardsDeckRecreatedIfNeeded(rng);
@@ -168,8 +208,9 @@ public final class Game {
                 gameState = gameState.withMoreDiscardedCards(drawnCards);
                 int additionalClaimCardsCount = claimedRoute
                         .additionalClaimCardsCount(claimCards, drawnCards);
-                receiveInfo(players, currentPlayerInfo.drewAdditionalCards(
-                        drawnCards, additionalClaimCardsCount));
+                receiveInfo(players, playerNames, withInfo,
+                        () -> InfoEvent.drewAdditionalCards(currentId,
+                                drawnCards, additionalClaimCardsCount));
                 if (additionalClaimCardsCount > 0) {
                     List<SortedBag<Card>> possibleAdditionalCards = currentPlayerState
                             .possibleAdditionalCards(additionalClaimCardsCount,
@@ -179,28 +220,34 @@ public final class Game {
                         SortedBag<Card> chosenAdditionalCards = currentPlayer
                                 .chooseAdditionalCards(possibleAdditionalCards);
                         if (chosenAdditionalCards.isEmpty()) {
-                            receiveInfo(players, currentPlayerInfo
-                                    .didNotClaimRoute(claimedRoute));
+                            receiveInfo(players, playerNames, withInfo,
+                                    () -> InfoEvent.didNotClaimRoute(
+                                            currentId, claimedRoute));
                         } else {
-                            receiveInfo(players, currentPlayerInfo.claimedRoute(
-                                    claimedRoute,
-                                    claimCards.union(chosenAdditionalCards)));
+                            SortedBag<Card> usedCards = claimCards
+                                    .union(chosenAdditionalCards);
+                            receiveInfo(players, playerNames, withInfo,
+                                    () -> InfoEvent.claimedRoute(currentId,
+                                            claimedRoute, usedCards));
                             gameState = gameState.withClaimedRoute(claimedRoute,
-                                    claimCards.union(chosenAdditionalCards));
+                                    usedCards);
                         }
                     } else {
-                        receiveInfo(players, currentPlayerInfo
-                                .didNotClaimRoute(claimedRoute));
+                        receiveInfo(players, playerNames, withInfo,
+                                () -> InfoEvent.didNotClaimRoute(currentId,
+                                        claimedRoute));
                     }
                 } else {
-                    receiveInfo(players, currentPlayerInfo
-                            .claimedRoute(claimedRoute, claimCards));
+                    receiveInfo(players, playerNames, withInfo,
+                            () -> InfoEvent.claimedRoute(currentId,
+                                    claimedRoute, claimCards));
                     gameState = gameState.withClaimedRoute(claimedRoute,
                             claimCards);
                 }
             } else {
-                receiveInfo(players, currentPlayerInfo
-                        .claimedRoute(claimedRoute, claimCards));
+                receiveInfo(players, playerNames, withInfo,
+                        () -> InfoEvent.claimedRoute(currentId, claimedRoute,
+                                claimCards));
                 gameState = gameState.withClaimedRoute(claimedRoute,
                         claimCards);
             }
@@ -210,13 +257,12 @@ public final class Game {
 
     }
 
-    private static void endOfGame(GameState gameState,
-            Map<PlayerId, Player> players, Map<PlayerId, Info> infoPlayers,
-            Map<PlayerId, String> playerNames) {
+    private static Map<PlayerId, Integer> endOfGame(GameState gameState,
+            Map<PlayerId, Player> players, Map<PlayerId, String> playerNames,
+            boolean withInfo) {
         List<Trail> longestTrails = new ArrayList<>();
         for (PlayerId id : PlayerId.ALL) {
-            longestTrails
-                    .add(Trail.longest(gameState.playerState(id).routes()));
+            longestTrails.add(gameState.playerState(id).longestTrail());
         }
         int longestTrailLength1 = longestTrails.get(0).length();
         int longestTrailLength2 = longestTrails.get(1).length();
@@ -226,33 +272,43 @@ public final class Game {
                 .finalPoints();
         if (longestTrailLength1 > longestTrailLength2) {
             finalPoints1 += Constants.LONGEST_TRAIL_BONUS_POINTS;
-            receiveInfo(players, infoPlayers.get(PlayerId.PLAYER_1)
-                    .getsLongestTrailBonus(longestTrails.get(0)));
+            receiveInfo(players, playerNames, withInfo,
+                    () -> InfoEvent.getsLongestTrailBonus(PlayerId.PLAYER_1,
+                            longestTrails.get(0)));
         } else if (longestTrailLength2 > longestTrailLength1) {
             finalPoints2 += Constants.LONGEST_TRAIL_BONUS_POINTS;
-            receiveInfo(players, infoPlayers.get(PlayerId.PLAYER_2)
-                    .getsLongestTrailBonus(longestTrails.get(1)));
+            receiveInfo(players, playerNames, withInfo,
+                    () -> InfoEvent.getsLongestTrailBonus(PlayerId.PLAYER_2,
+                            longestTrails.get(1)));
         } else {
             finalPoints1 += Constants.LONGEST_TRAIL_BONUS_POINTS;
             finalPoints2 += Constants.LONGEST_TRAIL_BONUS_POINTS;
-            receiveInfo(players, infoPlayers.get(PlayerId.PLAYER_1)
-                    .getsLongestTrailBonus(longestTrails.get(0)));
-            receiveInfo(players, infoPlayers.get(PlayerId.PLAYER_2)
-                    .getsLongestTrailBonus(longestTrails.get(1)));
+            receiveInfo(players, playerNames, withInfo,
+                    () -> InfoEvent.getsLongestTrailBonus(PlayerId.PLAYER_1,
+                            longestTrails.get(0)));
+            receiveInfo(players, playerNames, withInfo,
+                    () -> InfoEvent.getsLongestTrailBonus(PlayerId.PLAYER_2,
+                            longestTrails.get(1)));
         }
+        Map<PlayerId, Integer> finalPoints = new EnumMap<>(PlayerId.class);
+        finalPoints.put(PlayerId.PLAYER_1, finalPoints1);
+        finalPoints.put(PlayerId.PLAYER_2, finalPoints2);
+        updateState(players, gameState);
         if (finalPoints1 > finalPoints2) {
-            updateState(players, gameState);
-            receiveInfo(players, infoPlayers.get(PlayerId.PLAYER_1)
-                    .won(finalPoints1, finalPoints2));
+            receiveInfo(players, playerNames, withInfo,
+                    () -> InfoEvent.won(PlayerId.PLAYER_1,
+                            finalPoints.get(PlayerId.PLAYER_1),
+                            finalPoints.get(PlayerId.PLAYER_2)));
         } else if (finalPoints2 > finalPoints1) {
-            updateState(players, gameState);
-            receiveInfo(players, infoPlayers.get(PlayerId.PLAYER_2)
-                    .won(finalPoints2, finalPoints1));
+            receiveInfo(players, playerNames, withInfo,
+                    () -> InfoEvent.won(PlayerId.PLAYER_2,
+                            finalPoints.get(PlayerId.PLAYER_2),
+                            finalPoints.get(PlayerId.PLAYER_1)));
         } else {
-            updateState(players, gameState);
-            receiveInfo(players, Info.draw((List<String>) playerNames.values(),
-                    finalPoints1));
+            receiveInfo(players, playerNames, withInfo,
+                    () -> InfoEvent.draw(finalPoints.get(PlayerId.PLAYER_1)));
         }
+        return finalPoints;
     }
 
 }
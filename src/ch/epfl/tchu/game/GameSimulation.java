@@ -0,0 +1,96 @@
+/*
+ *	Author:      Ahmed Kallala (315594)
+ *	Date:        2 juin 2021
+ */
+
+package ch.epfl.tchu.game;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import ch.epfl.tchu.SortedBag;
+
+/**
+ * Classe exécutant des parties simulées entre deux joueurs automatiques
+ * (RandomPlayer), sans interface graphique ni transmission des informations,
+ * réparties sur tous les processeurs disponibles ; chaque partie utilise ses
+ * propres générateurs aléatoires, dérivés de la graine donnée et du numéro de
+ * la partie, de sorte qu'une partie donnée peut toujours être rejouée
+ * 
+ * Arguments (facultatifs) : nombre de parties, graine, nombre de fils
+ * d'exécution
+ * 
+ * @author ahmedkallala
+ *
+ */
+public final class GameSimulation {
+    private static final int DEFAULT_GAMES_COUNT = 10_000;
+    private static final long DEFAULT_SEED = 2021;
+    private static final Map<PlayerId, String> PLAYER_NAMES = Map.of(
+            PlayerId.PLAYER_1, "Ada", PlayerId.PLAYER_2, "Charles");
+
+    private GameSimulation() {
+    }
+
+    public static void main(String[] args)
+            throws InterruptedException, ExecutionException {
+        int gamesCount = args.length > 0 ? Integer.parseInt(args[0])
+                : DEFAULT_GAMES_COUNT;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : DEFAULT_SEED;
+        int threadsCount = args.length > 2 ? Integer.parseInt(args[2])
+                : Runtime.getRuntime().availableProcessors();
+
+        SortedBag<Ticket> tickets = SortedBag.of(ChMap.tickets());
+        ExecutorService executor = Executors.newFixedThreadPool(threadsCount);
+        long start = System.nanoTime();
+        List<Future<Map<PlayerId, Integer>>> results = new ArrayList<>();
+        for (int i = 0; i < gamesCount; ++i) {
+            long gameSeed = seed + i;
+            results.add(executor.submit(() -> play(tickets, gameSeed)));
+        }
+        Map<PlayerId, Integer> wins = new EnumMap<>(PlayerId.class);
+        int draws = 0;
+        for (PlayerId id : PlayerId.ALL) {
+            wins.put(id, 0);
+        }
+        for (Future<Map<PlayerId, Integer>> result : results) {
+            Map<PlayerId, Integer> points = result.get();
+            int points1 = points.get(PlayerId.PLAYER_1);
+            int points2 = points.get(PlayerId.PLAYER_2);
+            if (points1 == points2) {
+                ++draws;
+            } else {
+                PlayerId winner = points1 > points2 ? PlayerId.PLAYER_1
+                        : PlayerId.PLAYER_2;
+                wins.put(winner, wins.get(winner) + 1);
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        executor.shutdown();
+
+        System.out.printf("%d parties en %.2f s (%.0f parties/s, %d fils)%n",
+                gamesCount, seconds, gamesCount / seconds, threadsCount);
+        System.out.printf("victoires : %s %d, %s %d ; égalités : %d%n",
+                PLAYER_NAMES.get(PlayerId.PLAYER_1),
+                wins.get(PlayerId.PLAYER_1),
+                PLAYER_NAMES.get(PlayerId.PLAYER_2),
+                wins.get(PlayerId.PLAYER_2), draws);
+    }
+
+    private static Map<PlayerId, Integer> play(SortedBag<Ticket> tickets,
+            long seed) {
+        Random rng = new Random(seed);
+        Map<PlayerId, Player> players = new EnumMap<>(PlayerId.class);
+        for (PlayerId id : PlayerId.ALL) {
+            players.put(id, new RandomPlayer(new Random(rng.nextLong())));
+        }
+        return Game.play(players, PLAYER_NAMES, tickets, rng, false);
+    }
+}
@@ -0,0 +1,419 @@
+/*
+ *	Author:      Ahmed Kallala (315594)
+ *	Date:        7 juin 2021
+ */
+
+package ch.epfl.tchu.game;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.gui.Info;
+
+/**
+ * Classe représentant, sous forme structurée, une information sur le
+ * déroulement de la partie : sa sorte et ses paramètres (joueur concerné,
+ * nombres, carte, route, cartes, gares). Le message correspondant n'est
+ * construit, au moyen de Info, que par le joueur qui l'affiche ; les champs
+ * inutilisés par une sorte valent 0, null ou le multiensemble vide
+ * 
+ * @author ahmedkallala
+ *
+ */
+public final class InfoEvent {
+    /**
+     * Enumération représentant les différentes sortes d'informations, une
+     * pour chacun des messages de Info
+     */
+    public enum Kind {
+        WILL_PLAY_FIRST, KEPT_TICKETS, CAN_PLAY, DREW_TICKETS, DREW_BLIND_CARD, DREW_VISIBLE_CARD, CLAIMED_ROUTE, ATTEMPTS_TUNNEL_CLAIM, DREW_ADDITIONAL_CARDS, DID_NOT_CLAIM_ROUTE, LAST_TURN_BEGINS, GETS_LONGEST_TRAIL_BONUS, WON, DRAW;
+
+        public final static List<Kind> ALL = List.of(Kind.values()); // liste
+                                                                     // de tous
+                                                                     // les
+                                                                     // éléments
+                                                                     // de Kind
+    }
+
+    private final Kind kind;
+    private final PlayerId playerId;
+    private final int count;
+    private final int otherCount;
+    private final Card card;
+    private final Route route;
+    private final SortedBag<Card> cards;
+    private final Station station1;
+    private final Station station2;
+
+    /**
+     * Constructeur de InfoEvent ; les méthodes statiques, une par sorte, sont
+     * en général plus commodes
+     * 
+     * @param kind(Kind)
+     *            la sorte de l'information
+     * @param playerId(PlayerId)
+     *            le joueur concerné (le premier joueur pour DRAW)
+     * @param count(int)
+     *            le nombre de billets, de wagons, de cartes additionnelles ou
+     *            de points
+     * @param otherCount(int)
+     *            le nombre de points du perdant, pour WON
+     * @param card(Card)
+     *            la carte tirée, pour DREW_VISIBLE_CARD
+     * @param route(Route)
+     *            la route concernée
+     * @param cards(SortedBag<Card>)
+     *            les cartes utilisées ou tirées
+     * @param station1(Station)
+     *            la première gare du plus long chemin
+     * @param station2(Station)
+     *            la dernière gare du plus long chemin
+     * @throws NullPointerException
+     *             si la sorte, le joueur ou les cartes sont null
+     */
+    public InfoEvent(Kind kind, PlayerId playerId, int count, int otherCount,
+            Card card, Route route, SortedBag<Card> cards, Station station1,
+            Station station2) {
+        this.kind = Objects.requireNonNull(kind);
+        this.playerId = Objects.requireNonNull(playerId);
+        this.count = count;
+        this.otherCount = otherCount;
+        this.card = card;
+        this.route = route;
+        this.cards = Objects.requireNonNull(cards);
+        this.station1 = station1;
+        this.station2 = station2;
+    }
+
+    private static InfoEvent of(Kind kind, PlayerId playerId) {
+        return of(kind, playerId, 0);
+    }
+
+    private static InfoEvent of(Kind kind, PlayerId playerId, int count) {
+        return new InfoEvent(kind, playerId, count, 0, null, null,
+                SortedBag.of(), null, null);
+    }
+
+    private static InfoEvent of(Kind kind, PlayerId playerId, Route route,
+            SortedBag<Card> cards) {
+        return new InfoEvent(kind, playerId, 0, 0, null, route, cards, null,
+                null);
+    }
+
+    /**
+     * Méthode qui retourne l'information déclarant que le joueur donné jouera
+     * en premier
+     * 
+     * @param playerId(PlayerId)
+     *            le joueur concerné
+     * @return l'information correspondante
+     */
+    public static InfoEvent willPlayFirst(PlayerId playerId) {
+        return of(Kind.WILL_PLAY_FIRST, playerId);
+    }
+
+    /**
+     * Méthode qui retourne l'information déclarant que le joueur donné a gardé
+     * "count" billets
+     * 
+     * @param playerId(PlayerId)
+     *            le joueur concerné
+     * @param count(int)
+     *            le nombre de billets gardés
+     * @return l'information correspondante
+     */
+    public static InfoEvent keptTickets(PlayerId playerId, int count) {
+        return of(Kind.KEPT_TICKETS, playerId, count);
+    }
+
+    /**
+     * Méthode qui retourne l'information déclarant que le joueur donné peut
+     * jouer
+     * 
+     * @param playerId(PlayerId)
+     *            le joueur concerné
+     * @return l'information correspondante
+     */
+    public static InfoEvent canPlay(PlayerId playerId) {
+        return of(Kind.CAN_PLAY, playerId);
+    }
+
+    /**
+     * Méthode qui retourne l'information déclarant que le joueur donné a tiré
+     * "count" billets
+     * 
+     * @param playerId(PlayerId)
+     *            le joueur concerné
+     * @param count(int)
+     *            le nombre de billets tirés
+     * @return l'information correspondante
+     */
+    public static InfoEvent drewTickets(PlayerId playerId, int count) {
+        return of(Kind.DREW_TICKETS, playerId, count);
+    }
+
+    /**
+     * Méthode qui retourne l'information déclarant que le joueur donné a tiré
+     * une carte du sommet de la pioche
+     * 
+     * @param playerId(PlayerId)
+     *            le joueur concerné
+     * @return l'information correspondante
+     */
+    public static InfoEvent drewBlindCard(PlayerId playerId) {
+        return of(Kind.DREW_BLIND_CARD, playerId);
+    }
+
+    /**
+     * Méthode qui retourne l'information déclarant que le joueur donné a tiré
+     * la carte face visible "card"
+     * 
+     * @param playerId(PlayerId)
+     *            le joueur concerné
+     * @param card(Card)
+     *            la carte tirée
+     * @return l'information correspondante
+     */
+    public static InfoEvent drewVisibleCard(PlayerId playerId, Card card) {
+        return new InfoEvent(Kind.DREW_VISIBLE_CARD, playerId, 0, 0, card,
+                null, SortedBag.of(), null, null);
+    }
+
+    /**
+     * Méthode qui retourne l'information déclarant que le joueur donné s'est
+     * emparé de la route "route" au moyen des cartes "cards"
+     * 
+     * @param playerId(PlayerId)
+     *            le joueur concerné
+     * @param route(Route)
+     *            la route dont le joueur s'est emparé
+     * @param cards(SortedBag<Card>)
+     *            les cartes utilisées
+     * @return l'information correspondante
+     */
+    public static InfoEvent claimedRoute(PlayerId playerId, Route route,
+            SortedBag<Card> cards) {
+        return of(Kind.CLAIMED_ROUTE, playerId, route, cards);
+    }
+
+    /**
+     * Méthode qui retourne l'information déclarant que le joueur donné tente
+     * de s'emparer du tunnel "route" au moyen des cartes "initialCards"
+     * 
+     * @param playerId(PlayerId)
+     *            le joueur concerné
+     * @param route(Route)
+     *            le tunnel
+     * @param initialCards(SortedBag<Card>)
+     *            les cartes initialement utilisées
+     * @return l'information correspondante
+     */
+    public static InfoEvent attemptsTunnelClaim(PlayerId playerId, Route route,
+            SortedBag<Card> initialCards) {
+        return of(Kind.ATTEMPTS_TUNNEL_CLAIM, playerId, route, initialCards);
+    }
+
+    /**
+     * Méthode qui retourne l'information déclarant que le joueur donné a tiré
+     * les cartes additionnelles "drawnCards", qui impliquent un coût
+     * additionnel de "additionalCost" cartes
+     * 
+     * @param playerId(PlayerId)
+     *            le joueur concerné
+     * @param drawnCards(SortedBag<Card>)
+     *            les cartes additionnelles tirées
+     * @param additionalCost(int)
+     *            le coût additionnel
+     * @return l'information correspondante
+     */
+    public static InfoEvent drewAdditionalCards(PlayerId playerId,
+            SortedBag<Card> drawnCards, int additionalCost) {
+        return new InfoEvent(Kind.DREW_ADDITIONAL_CARDS, playerId,
+                additionalCost, 0, null, null, drawnCards, null, null);
+    }
+
+    /**
+     * Méthode qui retourne l'information déclarant que le joueur donné n'a pas
+     * pu (ou voulu) s'emparer du tunnel "route"
+     * 
+     * @param playerId(PlayerId)
+     *            le joueur concerné
+     * @param route(Route)
+     *            le tunnel
+     * @return l'information correspondante
+     */
+    public static InfoEvent didNotClaimRoute(PlayerId playerId, Route route) {
+        return of(Kind.DID_NOT_CLAIM_ROUTE, playerId, route, SortedBag.of());
+    }
+
+    /**
+     * Méthode qui retourne l'information déclarant que le joueur donné n'a
+     * plus que "carCount" wagons et que le dernier tour commence
+     * 
+     * @param playerId(PlayerId)
+     *            le joueur concerné
+     * @param carCount(int)
+     *            le nombre de wagons restants
+     * @return l'information correspondante
+     */
+    public static InfoEvent lastTurnBegins(PlayerId playerId, int carCount) {
+        return of(Kind.LAST_TURN_BEGINS, playerId, carCount);
+    }
+
+    /**
+     * Méthode qui retourne l'information déclarant que le joueur donné obtient
+     * le bonus de fin de partie grâce au chemin "longestTrail"
+     * 
+     * @param playerId(PlayerId)
+     *            le joueur concerné
+     * @param longestTrail(Trail)
+     *            le plus long chemin du joueur
+     * @return l'information correspondante
+     */
+    public static InfoEvent getsLongestTrailBonus(PlayerId playerId,
+            Trail longestTrail) {
+        return new InfoEvent(Kind.GETS_LONGEST_TRAIL_BONUS, playerId, 0, 0,
+                null, null, SortedBag.of(), longestTrail.station1(),
+                longestTrail.station2());
+    }
+
+    /**
+     * Méthode qui retourne l'information déclarant que le joueur donné
+     * remporte la partie avec "points" points, son adversaire en ayant obtenu
+     * "loserPoints"
+     * 
+     * @param playerId(PlayerId)
+     *            le gagnant
+     * @param points(int)
+     *            les points du gagnant
+     * @param loserPoints(int)
+     *            les points du perdant
+     * @return l'information correspondante
+     */
+    public static InfoEvent won(PlayerId playerId, int points,
+            int loserPoints) {
+        return new InfoEvent(Kind.WON, playerId, points, loserPoints, null,
+                null, SortedBag.of(), null, null);
+    }
+
+    /**
+     * Méthode qui retourne l'information déclarant que les joueurs ont terminé
+     * la partie ex-æqo avec "points" points chacun
+     * 
+     * @param points(int)
+     *            les points de chaque joueur
+     * @return l'information correspondante
+     */
+    public static InfoEvent draw(int points) {
+        return of(Kind.DRAW, PlayerId.PLAYER_1, points);
+    }
+
+    /**
+     * @return kind(Kind) la sorte de l'information
+     */
+    public Kind kind() {
+        return kind;
+    }
+
+    /**
+     * @return playerId(PlayerId) le joueur concerné
+     */
+    public PlayerId playerId() {
+        return playerId;
+    }
+
+    /**
+     * @return count(int) le nombre de billets, de wagons, de cartes
+     *         additionnelles ou de points
+     */
+    public int count() {
+        return count;
+    }
+
+    /**
+     * @return otherCount(int) le nombre de points du perdant, pour WON
+     */
+    public int otherCount() {
+        return otherCount;
+    }
+
+    /**
+     * @return card(Card) la carte tirée, ou null
+     */
+    public Card card() {
+        return card;
+    }
+
+    /**
+     * @return route(Route) la route concernée, ou null
+     */
+    public Route route() {
+        return route;
+    }
+
+    /**
+     * @return cards(SortedBag<Card>) les cartes utilisées ou tirées
+     */
+    public SortedBag<Card> cards() {
+        return cards;
+    }
+
+    /**
+     * @return station1(Station) la première gare du plus long chemin, ou null
+     */
+    public Station station1() {
+        return station1;
+    }
+
+    /**
+     * @return station2(Station) la dernière gare du plus long chemin, ou null
+     */
+    public Station station2() {
+        return station2;
+    }
+
+    /**
+     * Méthode qui construit, au moyen de Info, le message correspondant à
+     * l'information
+     * 
+     * @param playerNames(Map<PlayerId,
+     *            String>) les noms des joueurs
+     * @return le message correspondant
+     */
+    public String message(Map<PlayerId, String> playerNames) {
+        Info info = new Info(playerNames.get(playerId));
+        switch (kind) {
+        case WILL_PLAY_FIRST:
+            return info.willPlayFirst();
+        case KEPT_TICKETS:
+            return info.keptTickets(count);
+        case CAN_PLAY:
+            return info.canPlay();
+        case DREW_TICKETS:
+            return info.drewTickets(count);
+        case DREW_BLIND_CARD:
+            return info.drewBlindCard();
+        case DREW_VISIBLE_CARD:
+            return info.drewVisibleCard(card);
+        case CLAIMED_ROUTE:
+            return info.claimedRoute(route, cards);
+        case ATTEMPTS_TUNNEL_CLAIM:
+            return info.attemptsTunnelClaim(route, cards);
+        case DREW_ADDITIONAL_CARDS:
+            return info.drewAdditionalCards(cards, count);
+        case DID_NOT_CLAIM_ROUTE:
+            return info.didNotClaimRoute(route);
+        case LAST_TURN_BEGINS:
+            return info.lastTurnBegins(count);
+        case GETS_LONGEST_TRAIL_BONUS:
+            return info.getsLongestTrailBonus(station1, station2);
+        case WON:
+            return info.won(count, otherCount);
+        default:
+            return Info.draw(List.of(playerNames.get(PlayerId.PLAYER_1),
+                    playerNames.get(PlayerId.PLAYER_2)), count);
+        }
+    }
+}
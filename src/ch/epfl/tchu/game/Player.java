@@ -54,6 +54,22 @@ public interface Player {
      */
     public void receiveInfo(String info);
 
+    /**
+     * Méthode qui est appelée chaque fois qu'une information doit être
+     * communiquée au joueur au cours de la partie, sous forme structurée ; par
+     * défaut, le message correspondant est construit puis passé à
+     * receiveInfo(String)
+     * 
+     * @param event(InfoEvent)
+     *            l'information à communiquer au joueur
+     * @param playerNames(Map<PlayerId,
+     *            String>) les noms des différents joueurs
+     */
+    public default void receiveInfo(InfoEvent event,
+            Map<PlayerId, String> playerNames) {
+        receiveInfo(event.message(playerNames));
+    }
+
     /**
      * Méthode qui est appelée chaque fois que l'état du jeu a changé, pour
      * informer le joueur de la composante publique de ce nouvel état,
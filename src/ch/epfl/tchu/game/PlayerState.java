@@ -15,6 +15,12 @@ import ch.epfl.tchu.SortedBag;
 public final class PlayerState extends PublicPlayerState {
     private final SortedBag<Ticket> tickets;
     private final SortedBag<Card> cards;
+    private Trail longestTrail;
+    // Plus long chemin connu avant la dernière route ajoutée, à partir duquel
+    // longestTrail est calculé lorsqu'il est demandé
+    private Trail previousTrail;
+    private Route lastRoute;
+    private TicketTracker ticketTracker;
 
     /**
      * Constructeur de PlayerState
@@ -33,6 +39,18 @@ public final class PlayerState extends PublicPlayerState {
         this.cards = SortedBag.of(cards);
     }
 
+    private PlayerState(SortedBag<Ticket> tickets, SortedBag<Card> cards,
+            List<Route> routes, Trail longestTrail, Trail previousTrail,
+            Route lastRoute, TicketTracker ticketTracker) {
+        super(tickets.size(), cards.size(), routes);
+        this.tickets = tickets;
+        this.cards = cards;
+        this.longestTrail = longestTrail;
+        this.previousTrail = previousTrail;
+        this.lastRoute = lastRoute;
+        this.ticketTracker = ticketTracker;
+    }
+
     /**
      * Méthode qui retourne l'état initial d'un joueur auquel les cartes
      * initiales données en paramètre ont été distribuées
@@ -66,7 +84,10 @@ public final class PlayerState extends PublicPlayerState {
      *         ajoutés aux billets du joueur
      */
     public PlayerState withAddedTickets(SortedBag<Ticket> newTickets) {
-        return new PlayerState(tickets.union(newTickets), cards, routes());
+        return new PlayerState(tickets.union(newTickets), cards, routes(),
+                longestTrail, previousTrail, lastRoute,
+                ticketTracker == null ? null
+                        : ticketTracker.withAddedTickets(newTickets));
     }
 
     /**
@@ -87,7 +108,8 @@ public final class PlayerState extends PublicPlayerState {
      */
     public PlayerState withAddedCard(Card card) {
         return new PlayerState(tickets, cards.union(SortedBag.of(card)),
-                routes());
+                routes(), longestTrail, previousTrail, lastRoute,
+                ticketTracker);
     }
 
     /**
@@ -103,11 +125,28 @@ public final class PlayerState extends PublicPlayerState {
     public boolean canClaimRoute(Route route) {
         if (route.length() > carCount()) {
             return false;
-        } else if (possibleClaimCards(route).isEmpty()) {
-            return false;
         } else {
-            return true;
+            return hasClaimCards(route);
+        }
+    }
+
+    // Équivaut à !possibleClaimCards(route).isEmpty(), mais ne consulte que
+    // le nombre de cartes de chaque sorte du joueur : les locomotives ne
+    // peuvent compléter des cartes wagon que sur un tunnel
+    private boolean hasClaimCards(Route route) {
+        int locomotives = route.level() == Route.Level.UNDERGROUND
+                ? cards.countOf(Card.LOCOMOTIVE)
+                : 0;
+        if (route.color() != null) {
+            return cards.countOf(Card.of(route.color()))
+                    + locomotives >= route.length();
         }
+        for (Card car : Card.CARS) {
+            if (cards.countOf(car) + locomotives >= route.length()) {
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
@@ -175,10 +214,11 @@ public final class PlayerState extends PublicPlayerState {
                 builderOfAdditionalCards.add(c);
             }
         }
+        SortedBag<Card> additionalCards = builderOfAdditionalCards.build();
         List<SortedBag<Card>> possibleAdditionalCards = new ArrayList<>();
-        if (builderOfAdditionalCards.build().size() >= additionalCardsCount) {
-            possibleAdditionalCards.addAll(builderOfAdditionalCards.build()
-                    .subsetsOfSize(additionalCardsCount));
+        if (additionalCards.size() >= additionalCardsCount) {
+            possibleAdditionalCards.addAll(
+                    additionalCards.subsetsOfSize(additionalCardsCount));
             possibleAdditionalCards.sort(
                     Comparator.comparingInt(cs -> cs.countOf(Card.LOCOMOTIVE)));
         }
@@ -203,34 +243,69 @@ public final class PlayerState extends PublicPlayerState {
         newRoutes.addAll(routes());
         newRoutes.add(route);
         return new PlayerState(tickets, cards.difference(claimCards),
-                newRoutes);
+                newRoutes, null, longestTrail, route,
+                ticketTracker().withClaimedRoute(tickets, route));
+    }
+
+    /**
+     * Méthode qui retourne le plus long chemin formé par les routes dont le
+     * joueur s'est emparé ; il n'est calculé que lorsqu'il est demandé, puis
+     * mémorisé. Si celui de l'état précédant la dernière route ajoutée par
+     * withClaimedRoute était déjà connu, seuls les chemins passant par cette
+     * route sont explorés, sinon tous les chemins le sont
+     * 
+     * @return longestTrail(Trail) le plus long chemin du joueur
+     */
+    public Trail longestTrail() {
+        if (longestTrail == null) {
+            longestTrail = previousTrail == null ? Trail.longest(routes())
+                    : Trail.longestWith(previousTrail, routes(), lastRoute);
+            previousTrail = null;
+            lastRoute = null;
+        }
+        return longestTrail;
     }
 
     /**
      * Méthode qui retourne le nombre de points obtenus par le joueur grâce à
-     * ses billets
+     * ses billets ; il est mis à jour par withAddedTickets et withClaimedRoute,
+     * et n'est recalculé que lorsqu'une route relie deux groupes de gares
+     * jusque-là séparés
      * 
      * @return ticketPoints(int) le nombre de points obtenus par le joueur grâce
      *         à ses billets
      */
     public int ticketPoints() {
-        int n = 0;
-        int ticketPoints = 0;
-        for (Route route : routes()) {
-            if (Math.max(route.station1().id(), route.station2().id()) > n) {
-                n = Math.max(route.station1().id(), route.station2().id());
+        return ticketTracker().points;
+    }
+
+    /**
+     * Méthode qui retourne les billets du joueur qui sont actuellement
+     * réalisés, c-à-d dont les gares sont reliées par ses routes
+     * 
+     * @return completedTickets(SortedBag<Ticket>) les billets réalisés du
+     *         joueur
+     */
+    public SortedBag<Ticket> completedTickets() {
+        return ticketTracker().completedTickets;
+    }
+
+    private TicketTracker ticketTracker() {
+        if (ticketTracker == null) {
+            int n = 0;
+            for (Route route : routes()) {
+                n = Math.max(n,
+                        Math.max(route.station1().id(), route.station2().id()));
             }
+            StationPartition.Builder partitionBuilder = new StationPartition.Builder(
+                    n + 1);
+            for (Route route : routes()) {
+                partitionBuilder.connect(route.station1(), route.station2());
+            }
+            ticketTracker = new TicketTracker(partitionBuilder.build(),
+                    tickets);
         }
-        StationPartition.Builder partitionBuilder = new StationPartition.Builder(
-                n + 1);
-        for (Route route : routes()) {
-            partitionBuilder.connect(route.station1(), route.station2());
-        }
-        StationPartition partition = partitionBuilder.build();
-        for (Ticket ticket : tickets) {
-            ticketPoints += ticket.points(partition);
-        }
-        return ticketPoints;
+        return ticketTracker;
     }
 
     /**
@@ -243,4 +318,48 @@ public final class PlayerState extends PublicPlayerState {
     public int finalPoints() {
         return claimPoints() + ticketPoints();
     }
+
+    // La partition des gares reliées par les routes du joueur, accompagnée du
+    // nombre de points et des billets réalisés qu'elle implique
+    private static final class TicketTracker {
+        private final StationPartition partition;
+        private final int points;
+        private final SortedBag<Ticket> completedTickets;
+
+        private TicketTracker(StationPartition partition,
+                SortedBag<Ticket> tickets) {
+            this(partition, 0, SortedBag.of(), tickets);
+        }
+
+        private TicketTracker(StationPartition partition, int points,
+                SortedBag<Ticket> completedTickets, SortedBag<Ticket> tickets) {
+            SortedBag.Builder<Ticket> completedBuilder = new SortedBag.Builder<>();
+            for (Ticket ticket : tickets) {
+                int ticketPoints = ticket.points(partition);
+                points += ticketPoints;
+                if (ticketPoints > 0) {
+                    completedBuilder.add(ticket);
+                }
+            }
+            this.partition = partition;
+            this.points = points;
+            this.completedTickets = completedTickets
+                    .union(completedBuilder.build());
+        }
+
+        private TicketTracker withAddedTickets(SortedBag<Ticket> newTickets) {
+            return new TicketTracker(partition, points, completedTickets,
+                    newTickets);
+        }
+
+        private TicketTracker withClaimedRoute(SortedBag<Ticket> tickets,
+                Route route) {
+            if (partition.connected(route.station1(), route.station2())) {
+                return this;
+            }
+            return new TicketTracker(
+                    partition.withConnected(route.station1(), route.station2()),
+                    tickets);
+        }
+    }
 }
@@ -0,0 +1,154 @@
+/*
+ *	Author:      Ahmed Kallala (315594)
+ *	Date:        2 juin 2021
+ */
+
+package ch.epfl.tchu.game;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import ch.epfl.tchu.SortedBag;
+
+/**
+ * Classe représentant un joueur automatique qui joue des coups légaux choisis
+ * au hasard, en privilégiant la prise de routes ; il sert aux parties simulées
+ * sans interface graphique. Si aucun coup n'est jouable, pas même un tirage de
+ * cartes, nextTurn lève une IllegalStateException qui interrompt la partie
+ * 
+ * @author ahmedkallala
+ *
+ */
+public final class RandomPlayer implements Player {
+    private static final int MIN_INITIAL_TICKETS_COUNT = Constants.INITIAL_TICKETS_COUNT
+            - Constants.DISCARDABLE_TICKETS_COUNT;
+    private static final int CLAIM_PERCENTAGE = 80;
+    // Game tire deux cartes par tour, chacune devant se trouver dans la
+    // pioche ou la défausse
+    private static final int MIN_DRAWABLE_CARDS_COUNT = 2;
+
+    private final Random rng;
+    private PublicGameState gameState = null;
+    private PlayerState ownState = null;
+    private SortedBag<Ticket> initialTickets = null;
+    private Route claimedRoute = null;
+
+    /**
+     * Constructeur de RandomPlayer
+     * 
+     * @param rng(Random)
+     *            le générateur aléatoire utilisé pour choisir les coups du
+     *            joueur
+     */
+    public RandomPlayer(Random rng) {
+        this.rng = rng;
+    }
+
+    @Override
+    public void initPlayers(PlayerId ownId, Map<PlayerId, String> playerNames) {
+    }
+
+    @Override
+    public void receiveInfo(String info) {
+    }
+
+    @Override
+    public void updateState(PublicGameState newState, PlayerState ownState) {
+        this.gameState = newState;
+        this.ownState = ownState;
+    }
+
+    @Override
+    public void setInitialTicketChoice(SortedBag<Ticket> tickets) {
+        initialTickets = tickets;
+    }
+
+    @Override
+    public SortedBag<Ticket> chooseInitialTickets() {
+        return randomSubset(initialTickets, MIN_INITIAL_TICKETS_COUNT);
+    }
+
+    @Override
+    public TurnKind nextTurn() {
+        List<Route> claimableRoutes = claimableRoutes();
+        if (!claimableRoutes.isEmpty() && (!gameState.canDrawCards()
+                || rng.nextInt(100) < CLAIM_PERCENTAGE)) {
+            claimedRoute = claimableRoutes
+                    .get(rng.nextInt(claimableRoutes.size()));
+            return TurnKind.CLAIM_ROUTE;
+        } else if (gameState.canDrawCards()) {
+            return TurnKind.DRAW_CARDS;
+        } else if (gameState.canDrawTickets() && gameState
+                .ticketsCount() >= Constants.IN_GAME_TICKETS_COUNT) {
+            return TurnKind.DRAW_TICKETS;
+        } else if (gameState.cardState().deckSize() + gameState.cardState()
+                .discardsSize() >= MIN_DRAWABLE_CARDS_COUNT) {
+            // Aucune action n'est possible selon les règles : le joueur tire
+            // quand même des cartes, ce que Game permet tant que la pioche et
+            // la défausse en contiennent au moins une par tirage
+            return TurnKind.DRAW_CARDS;
+        } else {
+            // Aucun coup n'est jouable, même hors des règles : la partie
+            // simulée ne peut pas continuer et est interrompue
+            throw new IllegalStateException("aucun coup possible");
+        }
+    }
+
+    @Override
+    public SortedBag<Ticket> chooseTickets(SortedBag<Ticket> options) {
+        return randomSubset(options, 1);
+    }
+
+    @Override
+    public int drawSlot() {
+        int slot = rng.nextInt(Constants.FACE_UP_CARDS_COUNT + 1);
+        return slot == Constants.FACE_UP_CARDS_COUNT ? Constants.DECK_SLOT
+                : slot;
+    }
+
+    @Override
+    public Route claimedRoute() {
+        return claimedRoute;
+    }
+
+    @Override
+    public SortedBag<Card> initialClaimCards() {
+        List<SortedBag<Card>> options = ownState
+                .possibleClaimCards(claimedRoute);
+        return options.get(rng.nextInt(options.size()));
+    }
+
+    @Override
+    public SortedBag<Card> chooseAdditionalCards(
+            List<SortedBag<Card>> options) {
+        return options.get(rng.nextInt(options.size()));
+    }
+
+    private List<Route> claimableRoutes() {
+        Set<List<Station>> claimedStations = new HashSet<>();
+        for (Route route : gameState.claimedRoutes()) {
+            claimedStations.add(route.stations());
+        }
+        List<Route> claimableRoutes = new ArrayList<>();
+        for (Route route : ChMap.routes()) {
+            if (!claimedStations.contains(route.stations())
+                    && ownState.canClaimRoute(route)) {
+                claimableRoutes.add(route);
+            }
+        }
+        return claimableRoutes;
+    }
+
+    private SortedBag<Ticket> randomSubset(SortedBag<Ticket> tickets,
+            int minSize) {
+        int size = minSize + rng.nextInt(tickets.size() - minSize + 1);
+        List<Ticket> shuffledTickets = new ArrayList<>(tickets.toList());
+        Collections.shuffle(shuffledTickets, rng);
+        return SortedBag.of(shuffledTickets.subList(0, size));
+    }
+}
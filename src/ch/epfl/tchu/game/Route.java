@@ -28,6 +28,7 @@ public final class Route {
     private final int length;
     private final Level level;
     private final Color color;
+    private volatile List<SortedBag<Card>> possibleClaimCards = null;
 
     /**
      * Constructeur d'une Route
@@ -145,11 +146,21 @@ public final class Route {
      * de cartes locomotive, puis par couleur) de tous les ensembles de cartes
      * qui pourraient être joués pour (tenter de) s'emparer de la route
      * 
-     * @return possibleClaimCards(List<SortedBag<Card>>) la liste de tous les
-     *         ensembles de cartes qui pourraient être joués pour (tenter de)
-     *         s'emparer de la route
+     * @return possibleClaimCards(List<SortedBag<Card>>) la liste (immuable)
+     *         de tous les ensembles de cartes qui pourraient être joués pour
+     *         (tenter de) s'emparer de la route ; elle n'est calculée qu'une
+     *         seule fois, au premier appel
      */
     public List<SortedBag<Card>> possibleClaimCards() {
+        List<SortedBag<Card>> possibleClaimCards = this.possibleClaimCards;
+        if (possibleClaimCards == null) {
+            possibleClaimCards = List.copyOf(computePossibleClaimCards());
+            this.possibleClaimCards = possibleClaimCards;
+        }
+        return possibleClaimCards;
+    }
+
+    private List<SortedBag<Card>> computePossibleClaimCards() {
         List<SortedBag<Card>> possibleClaimCardsUnderground = new ArrayList<>();
         List<SortedBag<Card>> possibleClaimCardsOverground = new ArrayList<>();
         for (int i = 0; i < length; ++i) {
@@ -5,6 +5,8 @@
 
 package ch.epfl.tchu.game;
 
+import java.util.Arrays;
+
 import ch.epfl.tchu.Preconditions;
 
 public final class StationPartition implements StationConnectivity {
@@ -23,8 +25,37 @@ public final class StationPartition implements StationConnectivity {
         }
     }
 
+    /**
+     * Méthode qui retourne une partition identique à celle-ci, si ce n'est que
+     * les sous-ensembles contenant les deux gares passées en argument y sont
+     * joints ; la partition d'origine n'est pas modifiée
+     * 
+     * @param s1(Station) la première des deux gares à joindre
+     * @param s2(Station) la deuxième des deux gares à joindre
+     * @return une partition dans laquelle "s1" et "s2" sont reliées
+     */
+    public StationPartition withConnected(Station s1, Station s2) {
+        int[] newPartition = Arrays.copyOf(partition,
+                Math.max(partition.length,
+                        Math.max(s1.id(), s2.id()) + 1));
+        for (int i = partition.length; i < newPartition.length; ++i) {
+            newPartition[i] = i;
+        }
+        int representative1 = newPartition[s1.id()];
+        int representative2 = newPartition[s2.id()];
+        if (representative1 != representative2) {
+            for (int i = 0; i < newPartition.length; ++i) {
+                if (newPartition[i] == representative2) {
+                    newPartition[i] = representative1;
+                }
+            }
+        }
+        return new StationPartition(newPartition);
+    }
+
     public static final class Builder {
         private int[] partition;
+        private final int[] rank;
 
         /**
          * Constructeur de Builder qui construit un bâtisseur de partition d'un
@@ -40,6 +71,7 @@ public final class StationPartition implements StationConnectivity {
         public Builder(int stationCount) {
             Preconditions.checkArgument(stationCount >= 0);
             partition = new int[stationCount];
+            rank = new int[stationCount];
             for (int i = 0; i < partition.length; ++i) {
                 partition[i] = i;
             }
@@ -48,14 +80,28 @@ public final class StationPartition implements StationConnectivity {
         /**
          * Méthode qui joint les sous-ensembles contenant les deux gares passées
          * en argument, en « élisant » l'un des deux représentants comme
-         * représentant du sous-ensemble joint 
+         * représentant du sous-ensemble joint ; le représentant élu est celui
+         * du sous-ensemble de plus grand rang, de sorte que les chaînes de
+         * représentants restent courtes
          * 
          * @param s1(Station) la première des deux gares à joindre
          * @param s2(Station) la deuxième des deux gares à joindre
          * @return le bâtisseur(this)
          */
         public Builder connect(Station s1, Station s2) {
-            partition[representative(s2.id())] = partition[s1.id()];
+            int representative1 = representative(s1.id());
+            int representative2 = representative(s2.id());
+            if (representative1 == representative2) {
+                return this;
+            }
+            if (rank[representative1] < rank[representative2]) {
+                partition[representative1] = representative2;
+            } else {
+                partition[representative2] = representative1;
+                if (rank[representative1] == rank[representative2]) {
+                    ++rank[representative1];
+                }
+            }
             return this;
         }
 
@@ -78,6 +124,14 @@ public final class StationPartition implements StationConnectivity {
             while (j != partition[j]) {
                 j = partition[j];
             }
+            // Compression des chemins : chaque gare parcourue pointe
+            // désormais directement vers le représentant
+            int k = i;
+            while (k != j) {
+                int next = partition[k];
+                partition[k] = j;
+                k = next;
+            }
             return j;
         }
     }
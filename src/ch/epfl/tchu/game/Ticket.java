@@ -67,9 +67,7 @@ public final class Ticket implements Comparable<Ticket> {
     public int points(StationConnectivity connectivity) {
         int points = Integer.MIN_VALUE;
         for (Trip trip : trips) {
-            if (trip.points(connectivity) > points) {
-                points = trip.points(connectivity);
-            }
+            points = Math.max(points, trip.points(connectivity));
         }
         return points;
     }
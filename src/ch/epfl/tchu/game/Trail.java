@@ -6,6 +6,8 @@
 package ch.epfl.tchu.game;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.List;
 
 public final class Trail {
@@ -34,53 +36,28 @@ public final class Trail {
         if (routes.isEmpty()) {
             return new Trail(null, 0, null, null);
         }
-        List<Trail> chemins = new ArrayList<>();
-        List<Trail> chemins2 = new ArrayList<>();
-        Trail longest = new Trail(null, 0, null, null);
-        for (Route route : routes) {
-
-            chemins.add(new Trail(List.of(route), route.length(),
-                    route.station1(), route.station2()));
-            chemins.add(new Trail(List.of(route), route.length(),
-                    route.station2(), route.station1()));
-
-        }
-
-        while (!chemins.isEmpty()) {
-            chemins2.clear();
-            for (Trail trail : chemins) {
-                if (trail.length() > longest.length()) {
-                    longest = new Trail(trail.routes, trail.length(),
-                            trail.station1(), trail.station2());
-                }
-                List<Route> routes2 = new ArrayList<>();
-                for (Route r : routes) {
-                    if (!(trail.routes.contains(r)) && ((trail.station2()
-                            .name() == r.station1().name()
-                            && trail.station2().id() == r.station1().id())
-                            || (trail.station2().name() == r.station2().name()
-                                    && trail.station2().id() == r.station2()
-                                            .id()))) {
-
-                        routes2.add(r);
-                    }
-                }
-                for (Route r2 : routes2) {
-
-                    List<Route> newRoutesOfTrail = new ArrayList<>();
-                    newRoutesOfTrail.addAll(trail.routes);
-                    newRoutesOfTrail.add(r2);
-                    chemins2.add(new Trail(newRoutesOfTrail,
-                            trail.length() + r2.length(), trail.station1(),
-                            r2.stationOpposite(trail.station2())));
-
-                }
-            }
-            chemins = List.copyOf(chemins2);
-
-        }
-        return longest;
+        return new Search(routes).longest();
+    }
 
+    /**
+     * Méthode qui retourne le plus long chemin qu'il est possible de former à
+     * partir des routes données en paramètre, sachant que "previous" est le
+     * plus long chemin formé par ces mêmes routes privées de "newRoute" ; seuls
+     * les chemins empruntant "newRoute" sont explorés, en prolongeant chacune
+     * de ses deux extrémités, et une branche est abandonnée dès qu'elle ne peut
+     * plus former un chemin plus long que "previous"
+     * 
+     * @param previous(Trail)
+     *            le plus long chemin formé par les routes sans "newRoute"
+     * @param routes(List<Route>)
+     *            une liste de routes contenant "newRoute"
+     * @param newRoute(Route)
+     *            la dernière route ajoutée à la liste
+     * @return le plus long chemin formé par les routes "routes"
+     */
+    public static Trail longestWith(Trail previous, List<Route> routes,
+            Route newRoute) {
+        return new Search(routes).longestThrough(newRoute, previous);
     }
 
     /**
@@ -124,4 +101,163 @@ public final class Trail {
                     station2.name(), length);
         }
     }
+    /**
+     * Recherche en profondeur du plus long chemin : les routes sont indexées
+     * par gare dans des tables d'adjacence et celles déjà empruntées par le
+     * chemin en cours sont marquées dans un masque de bits ; une branche est
+     * abandonnée dès que la longueur totale des routes encore libres ne permet
+     * plus de dépasser le meilleur chemin trouvé
+     */
+    private static final class Search {
+        private final List<Route> routes;
+        private final Station[] stations;
+        private final int[][] adjacency;
+        private final BitSet used;
+        private final int[] path;
+        private int pathSize = 0;
+        private int remainingLength = 0;
+        private int start;
+        private int bestLength = 0;
+        private int[] bestPath;
+        private int bestStart;
+        private int bestEnd;
+        // Recherche limitée aux chemins passant par une route donnée
+        private int throughIndex = -1;
+        private int rightStart;
+        private int[] leftPath;
+        private int leftSize = 0;
+
+        private Search(List<Route> routes) {
+            this.routes = routes;
+            int stationCount = 0;
+            for (Route route : routes) {
+                stationCount = Math.max(stationCount, Math.max(
+                        route.station1().id(), route.station2().id()) + 1);
+            }
+            stations = new Station[stationCount];
+            int[] degrees = new int[stationCount];
+            for (Route route : routes) {
+                stations[route.station1().id()] = route.station1();
+                stations[route.station2().id()] = route.station2();
+                ++degrees[route.station1().id()];
+                ++degrees[route.station2().id()];
+                remainingLength += route.length();
+            }
+            adjacency = new int[stationCount][];
+            for (int i = 0; i < stationCount; ++i) {
+                adjacency[i] = new int[degrees[i]];
+                degrees[i] = 0;
+            }
+            for (int i = 0; i < routes.size(); ++i) {
+                int id1 = routes.get(i).station1().id();
+                int id2 = routes.get(i).station2().id();
+                adjacency[id1][degrees[id1]++] = i;
+                adjacency[id2][degrees[id2]++] = i;
+            }
+            used = new BitSet(routes.size());
+            path = new int[routes.size()];
+            bestPath = new int[0];
+        }
+
+        private Trail longest() {
+            for (int s = 0; s < stations.length; ++s) {
+                if (adjacency[s].length > 0) {
+                    start = s;
+                    explore(s, 0);
+                }
+            }
+            return bestTrail();
+        }
+
+        // Un chemin passant par newRoute est formé d'une branche gauche
+        // aboutissant à l'une de ses gares, de newRoute, puis d'une branche
+        // droite partant de l'autre gare : chaque branche gauche explorée
+        // (newRoute marquée comme empruntée) est prolongée par toutes les
+        // branches droites disjointes, et seuls les chemins pouvant dépasser
+        // "previous" sont explorés
+        private Trail longestThrough(Route newRoute, Trail previous) {
+            int newIndex = routes.lastIndexOf(newRoute);
+            used.set(newIndex);
+            remainingLength -= newRoute.length();
+            throughIndex = newIndex;
+            rightStart = newRoute.station2().id();
+            leftPath = new int[routes.size()];
+            bestLength = previous.length();
+            exploreLeft(newRoute.station1().id(), newRoute.length());
+            return bestLength > previous.length() ? bestTrail() : previous;
+        }
+
+        private void exploreLeft(int station, int length) {
+            if (length + remainingLength <= bestLength) {
+                return;
+            }
+            start = station;
+            explore(rightStart, length);
+            for (int i : adjacency[station]) {
+                if (!used.get(i)) {
+                    Route route = routes.get(i);
+                    int next = route.station1().id() == station
+                            ? route.station2().id()
+                            : route.station1().id();
+                    used.set(i);
+                    remainingLength -= route.length();
+                    leftPath[leftSize++] = i;
+                    exploreLeft(next, length + route.length());
+                    --leftSize;
+                    remainingLength += route.length();
+                    used.clear(i);
+                }
+            }
+        }
+
+        private Trail bestTrail() {
+            List<Route> trailRoutes = new ArrayList<>(bestPath.length);
+            for (int i : bestPath) {
+                trailRoutes.add(routes.get(i));
+            }
+            return new Trail(List.copyOf(trailRoutes), bestLength,
+                    stations[bestStart], stations[bestEnd]);
+        }
+
+        // Le chemin courant d'une recherche passant par newRoute : la
+        // branche gauche parcourue depuis son extrémité, newRoute puis la
+        // branche droite
+        private int[] throughPath() {
+            int[] through = new int[leftSize + 1 + pathSize];
+            for (int i = 0; i < leftSize; ++i) {
+                through[i] = leftPath[leftSize - 1 - i];
+            }
+            through[leftSize] = throughIndex;
+            System.arraycopy(path, 0, through, leftSize + 1, pathSize);
+            return through;
+        }
+
+        private void explore(int station, int length) {
+            if (length > bestLength) {
+                bestLength = length;
+                bestPath = throughIndex == -1 ? Arrays.copyOf(path, pathSize)
+                        : throughPath();
+                bestStart = start;
+                bestEnd = station;
+            }
+            if (length + remainingLength <= bestLength) {
+                return;
+            }
+            for (int i : adjacency[station]) {
+                if (!used.get(i)) {
+                    Route route = routes.get(i);
+                    int next = route.station1().id() == station
+                            ? route.station2().id()
+                            : route.station1().id();
+                    used.set(i);
+                    remainingLength -= route.length();
+                    path[pathSize++] = i;
+                    explore(next, length + route.length());
+                    --pathSize;
+                    remainingLength += route.length();
+                    used.clear(i);
+                }
+            }
+        }
+    }
 }
@@ -0,0 +1,91 @@
+/*
+ *	Author:      Ahmed Kallala (315594)
+ *	Date:        12 juin 2021
+ */
+
+package ch.epfl.tchu.gui;
+
+import javafx.application.Platform;
+import javafx.scene.Scene;
+
+/**
+ * Classe mesurant, pour une scène, la durée des passes CSS et de mise en page
+ * qui suivent une mise à jour de l'état affiché ; les impulsions sans mise à
+ * jour (par exemple pendant une animation) ne sont pas comptées
+ * 
+ * @author ahmedkallala
+ *
+ */
+final class CssPassMeter {
+    private boolean updatePending = false;
+    private long passStart;
+    private long passes = 0;
+    private long totalNanos = 0;
+    private long lastNanos = 0;
+
+    /**
+     * Constructeur de CssPassMeter
+     * 
+     * @param scene(Scene)
+     *            la scène dont les passes sont mesurées
+     */
+    CssPassMeter(Scene scene) {
+        // JavaFX effectue la passe CSS puis la mise en page entre ces deux
+        // appels, à chaque impulsion
+        scene.addPreLayoutPulseListener(() -> passStart = System.nanoTime());
+        scene.addPostLayoutPulseListener(() -> {
+            if (updatePending) {
+                updatePending = false;
+                lastNanos = System.nanoTime() - passStart;
+                totalNanos += lastNanos;
+                ++passes;
+            }
+        });
+    }
+
+    /**
+     * Méthode qui signale que l'état affiché vient d'être mis à jour, la passe
+     * suivante est donc mesurée
+     */
+    void stateUpdated() {
+        assert Platform.isFxApplicationThread();
+        updatePending = true;
+    }
+
+    /**
+     * Méthode qui retourne le nombre de passes mesurées
+     * 
+     * @return le nombre de passes mesurées
+     */
+    long passes() {
+        return passes;
+    }
+
+    /**
+     * Méthode qui retourne la durée de la dernière passe mesurée
+     * 
+     * @return la durée de la dernière passe, en nanosecondes
+     */
+    long lastPassNanos() {
+        return lastNanos;
+    }
+
+    /**
+     * Méthode qui retourne la durée moyenne des passes mesurées
+     * 
+     * @return la durée moyenne d'une passe, en nanosecondes (0 si aucune
+     *         passe n'a été mesurée)
+     */
+    double averagePassNanos() {
+        return passes == 0 ? 0 : (double) totalNanos / passes;
+    }
+
+    /**
+     * Méthode qui oublie les passes mesurées jusqu'ici
+     */
+    void reset() {
+        passes = 0;
+        totalNanos = 0;
+        lastNanos = 0;
+    }
+}
@@ -13,9 +13,13 @@ import ch.epfl.tchu.gui.ActionHandlers.DrawTicketsHandler;
 import javafx.beans.binding.Bindings;
 import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.ReadOnlyIntegerProperty;
+import javafx.collections.ObservableSet;
+import javafx.collections.SetChangeListener;
+import javafx.css.PseudoClass;
 import javafx.scene.Group;
 import javafx.scene.Node;
 import javafx.scene.control.Button;
+import javafx.scene.control.ListCell;
 import javafx.scene.control.ListView;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.StackPane;
@@ -37,6 +41,8 @@ final class DecksViewCreator {
     private static final int INSIDE_CARD_RECTANGLE_HEIGHT = 70;
     private static final int OUTSIDE_CARD_RECTANGLE_WIDTH = 60;
     private static final int OUTSIDE_CARD_RECTANGLE_HEIGHT = 90;
+    private static final PseudoClass COMPLETED = PseudoClass
+            .getPseudoClass("completed");
 
     private DecksViewCreator() {
 
@@ -55,6 +61,8 @@ final class DecksViewCreator {
         handView.getStylesheets().addAll("decks.css", "colors.css");
         ListView<Ticket> ticketsView = new ListView<>(observableGame.tickets());
         ticketsView.setId("tickets");
+        ticketsView.setCellFactory(
+                v -> new TicketCell(observableGame.completedTickets()));
         handView.getChildren().addAll(ticketsView,
                 createHandCardsView(observableGame));
         return handView;
@@ -169,4 +177,29 @@ final class DecksViewCreator {
         return faceUpCardView;
     }
 
+    // Cellule affichant un billet, dotée de la pseudo-classe « completed »
+    // lorsque ce billet est réalisé ; elle suit les changements de l'ensemble
+    // des billets réalisés même si la liste des billets ne change pas
+    private static final class TicketCell extends ListCell<Ticket> {
+        private final ObservableSet<Ticket> completedTickets;
+
+        private TicketCell(ObservableSet<Ticket> completedTickets) {
+            this.completedTickets = completedTickets;
+            completedTickets.addListener(
+                    (SetChangeListener<Ticket>) c -> updateCompleted());
+        }
+
+        @Override
+        protected void updateItem(Ticket ticket, boolean empty) {
+            super.updateItem(ticket, empty);
+            setText(empty || ticket == null ? null : ticket.toString());
+            updateCompleted();
+        }
+
+        private void updateCompleted() {
+            pseudoClassStateChanged(COMPLETED, !isEmpty() && getItem() != null
+                    && completedTickets.contains(getItem()));
+        }
+    }
+
 }
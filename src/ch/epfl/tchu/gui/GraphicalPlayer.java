@@ -5,12 +5,15 @@
 
 package ch.epfl.tchu.gui;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
+import ch.epfl.tchu.Preconditions;
 import ch.epfl.tchu.SortedBag;
 import ch.epfl.tchu.game.Card;
 import ch.epfl.tchu.game.Constants;
+import ch.epfl.tchu.game.InfoEvent;
 import ch.epfl.tchu.game.PlayerId;
 import ch.epfl.tchu.game.PlayerState;
 import ch.epfl.tchu.game.PublicGameState;
@@ -46,13 +49,21 @@ import javafx.stage.StageStyle;
  *
  */
 public final class GraphicalPlayer {
+    private static final int MAX_INFOS_COUNT = 5;
+    private static final int HISTORY_CAPACITY = 10_000;
+
     private final ObservableGameState observableGame;
+    private final Map<PlayerId, String> playerNames;
+    private final InfoLog infoLog = new InfoLog(HISTORY_CAPACITY);
     private final ObservableList<Text> gameInfos = FXCollections
             .observableArrayList();
     private final ObjectProperty<ClaimRouteHandler> claimRouteHP = new SimpleObjectProperty<>();
     private final ObjectProperty<DrawCardHandler> drawCardHP = new SimpleObjectProperty<>();
     private final ObjectProperty<DrawTicketsHandler> drawTicketsHP = new SimpleObjectProperty<>();
     private final Stage stage;
+    private final CssPassMeter cssPassMeter;
+    private Stage historyWindow = null;
+    private ListView<String> historyView = null;
 
     /**
      * Constructeur de GraphicalPlayer
@@ -65,6 +76,7 @@ public final class GraphicalPlayer {
     public GraphicalPlayer(PlayerId player, Map<PlayerId, String> playerNames) {
         assert Platform.isFxApplicationThread();
         observableGame = new ObservableGameState(player);
+        this.playerNames = Map.copyOf(playerNames);
         BorderPane graphicalPlayerView = new BorderPane(
                 MapViewCreator.createMapView(observableGame, claimRouteHP,
                         (options,
@@ -74,10 +86,12 @@ public final class GraphicalPlayer {
                         drawCardHP),
                 DecksViewCreator.createHandView(observableGame),
                 InfoViewCreator.createInfoView(player, playerNames,
-                        observableGame, gameInfos));
+                        observableGame, gameInfos, this::showHistory));
         stage = new Stage();
         stage.setTitle("tCHu \u2014 " + playerNames.get(player));
-        stage.setScene(new Scene(graphicalPlayerView));
+        Scene scene = new Scene(graphicalPlayerView);
+        cssPassMeter = new CssPassMeter(scene);
+        stage.setScene(scene);
         stage.show();
     }
 
@@ -94,6 +108,28 @@ public final class GraphicalPlayer {
             PlayerState newPlayerState) {
         assert Platform.isFxApplicationThread();
         observableGame.setState(newGameState, newPlayerState);
+        cssPassMeter.stateUpdated();
+    }
+
+    /**
+     * Méthode qui retourne un contrôleur de lecture rejouant des états
+     * enregistrés dans cette interface graphique
+     * 
+     * @return un nouveau contrôleur de lecture lié à l'état observable
+     */
+    public PlaybackController playback() {
+        return new PlaybackController(observableGame,
+                cssPassMeter::stateUpdated);
+    }
+
+    /**
+     * Méthode qui retourne la mesure des passes CSS et de mise en page qui
+     * suivent les mises à jour de l'état affiché
+     * 
+     * @return la mesure des passes de la fenêtre du joueur
+     */
+    CssPassMeter cssPassMeter() {
+        return cssPassMeter;
     }
 
     /**
@@ -105,12 +141,63 @@ public final class GraphicalPlayer {
      */
     public void receiveInfo(String info) {
         assert Platform.isFxApplicationThread();
-        if (gameInfos.size() == 5) {
-            gameInfos.remove(0);
-            gameInfos.add(new Text(info));
-        } else {
-            gameInfos.add(new Text(info));
+        infoLog.append(null, info);
+        updateGameInfos();
+    }
+
+    /**
+     * Méthode qui ajoute une information structurée sur le déroulement du jeu
+     * à l'historique et à la fenêtre d'infos
+     * 
+     * @param event(InfoEvent)
+     *            la nouvelle info à ajouter
+     */
+    public void receiveInfo(InfoEvent event) {
+        assert Platform.isFxApplicationThread();
+        infoLog.append(event, event.message(playerNames));
+        updateGameInfos();
+    }
+
+    /**
+     * Méthode qui ajoute plusieurs infos à la fois à l'historique et à la
+     * fenêtre d'infos, celle-ci n'étant mise à jour qu'une seule fois
+     * 
+     * @param events(List<InfoEvent>)
+     *            les nouvelles infos structurées, un élément valant null si
+     *            l'info n'est connue que par son message
+     * @param messages(List<String>)
+     *            les messages des nouvelles infos, un élément valant null si
+     *            le message doit être construit à partir de l'info structurée
+     * @throws IllegalArgumentException
+     *             si les deux listes sont de tailles différentes
+     */
+    void receiveInfos(List<InfoEvent> events, List<String> messages) {
+        assert Platform.isFxApplicationThread();
+        Preconditions.checkArgument(events.size() == messages.size());
+        List<String> allMessages = new ArrayList<>(messages.size());
+        for (int i = 0; i < messages.size(); ++i) {
+            allMessages.add(messages.get(i) != null ? messages.get(i)
+                    : events.get(i).message(playerNames));
         }
+        infoLog.appendAll(events, allMessages);
+        updateGameInfos();
+    }
+
+    /**
+     * Méthode qui affiche la fenêtre de l'historique des infos, qui reste
+     * ensuite à jour
+     */
+    public void showHistory() {
+        assert Platform.isFxApplicationThread();
+        if (historyWindow == null) {
+            historyView = new ListView<>(infoLog);
+            historyWindow = new Stage(StageStyle.UTILITY);
+            historyWindow.setTitle(StringsFr.HISTORY_WINDOW);
+            historyWindow.initOwner(stage);
+            historyWindow.setScene(new Scene(historyView));
+        }
+        historyView.scrollTo(infoLog.size() - 1);
+        historyWindow.show();
     }
 
     /**
@@ -236,6 +323,18 @@ public final class GraphicalPlayer {
                 StringsFr.CHOOSE_ADDITIONAL_CARDS);
     }
 
+    // Les textes de la fenêtre d'infos sont créés une seule fois, puis
+    // réutilisés pour afficher les dernières infos de l'historique
+    private void updateGameInfos() {
+        int count = Math.min(MAX_INFOS_COUNT, infoLog.size());
+        while (gameInfos.size() < count) {
+            gameInfos.add(new Text());
+        }
+        for (int i = 0; i < count; ++i) {
+            gameInfos.get(i).setText(infoLog.get(infoLog.size() - count + i));
+        }
+    }
+
     private void setPropertiesToNull() {
         claimRouteHP.setValue(null);
         drawCardHP.set(null);
@@ -5,24 +5,38 @@
 
 package ch.epfl.tchu.gui;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 import ch.epfl.tchu.SortedBag;
 import ch.epfl.tchu.game.Card;
+import ch.epfl.tchu.game.InfoEvent;
 import ch.epfl.tchu.game.Player;
 import ch.epfl.tchu.game.PlayerId;
 import ch.epfl.tchu.game.PlayerState;
 import ch.epfl.tchu.game.PublicGameState;
 import ch.epfl.tchu.game.Route;
 import ch.epfl.tchu.game.Ticket;
+import javafx.animation.AnimationTimer;
 import javafx.application.Platform;
 
 /**
  * Classe permetant d'adapter une instance de GraphicalPlayer en une valeur de
- * type Player
+ * type Player.
+ * 
+ * Les états et les informations reçus ne sont pas appliqués un à un : ils sont
+ * mis en attente et appliqués au plus une fois par impulsion (pulse) JavaFX,
+ * seul le dernier état en attente étant conservé, de sorte que l'interface
+ * reste fluide même lorsque la partie avance très vite. Les demandes faites
+ * au joueur appliquent d'abord ce qui est en attente
  * 
  * @author ahmedkallala
  *
@@ -39,6 +53,43 @@ public class GraphicalPlayerAdapter implements Player {
             1);
     private final BlockingQueue<Integer> cardSlotChoiceQueue = new ArrayBlockingQueue<>(
             1);
+    private final AtomicReference<StateUpdate> pendingState = new AtomicReference<>();
+    private final Queue<PendingInfo> pendingInfos = new ConcurrentLinkedQueue<>();
+    // Vrai tant que le minuteur est démarré ou sur le point de l'être
+    private final AtomicBoolean applyScheduled = new AtomicBoolean();
+    private final AtomicLong appliedStates = new AtomicLong();
+    private final AtomicLong droppedStates = new AtomicLong();
+    private final AnimationTimer pendingApplier = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            if (!applyPending()) {
+                stop();
+                applyScheduled.set(false);
+                if (hasPending()) {
+                    schedule();
+                }
+            }
+        }
+    };
+
+    /**
+     * Méthode qui retourne le nombre d'états appliqués à l'interface graphique
+     * 
+     * @return le nombre d'états appliqués
+     */
+    public long appliedStates() {
+        return appliedStates.get();
+    }
+
+    /**
+     * Méthode qui retourne le nombre d'états intermédiaires jamais appliqués,
+     * car remplacés par un état plus récent avant l'impulsion suivante
+     * 
+     * @return le nombre d'états abandonnés
+     */
+    public long droppedStates() {
+        return droppedStates.get();
+    }
 
     @Override
     /**
@@ -54,7 +105,19 @@ public class GraphicalPlayerAdapter implements Player {
      * Méthode qui transmet les infos sur le déroulement de la partie
      */
     public void receiveInfo(String info) {
-        Platform.runLater(() -> graphicalPlayer.receiveInfo(info));
+        pendingInfos.add(new PendingInfo(null, info));
+        schedule();
+    }
+
+    @Override
+    /**
+     * Méthode qui transmet les infos structurées sur le déroulement de la
+     * partie, dont le message est construit par l'interface graphique
+     */
+    public void receiveInfo(InfoEvent event,
+            Map<PlayerId, String> playerNames) {
+        pendingInfos.add(new PendingInfo(event, null));
+        schedule();
     }
 
     @Override
@@ -62,9 +125,11 @@ public class GraphicalPlayerAdapter implements Player {
      * Méthode qui actualise l'état du jeu observable
      */
     public void updateState(PublicGameState newState, PlayerState ownState) {
-        Platform.runLater(() -> {
-            graphicalPlayer.setState(newState, ownState);
-        });
+        if (pendingState.getAndSet(
+                new StateUpdate(newState, ownState)) != null) {
+            droppedStates.incrementAndGet();
+        }
+        schedule();
     }
 
     @Override
@@ -73,7 +138,7 @@ public class GraphicalPlayerAdapter implements Player {
      * sont proposés au début du jeu
      */
     public void setInitialTicketChoice(SortedBag<Ticket> tickets) {
-        Platform.runLater(() -> graphicalPlayer.chooseTickets(tickets, t -> {
+        runLaterWhenApplied(() -> graphicalPlayer.chooseTickets(tickets, t -> {
             try {
                 ticketsChoiceQueue.put(t);
             } catch (InterruptedException e) {
@@ -106,7 +171,7 @@ public class GraphicalPlayerAdapter implements Player {
      * @return le tour que souhaite effectuer le joueur
      */
     public TurnKind nextTurn() {
-        Platform.runLater(() -> graphicalPlayer.startTurn(() -> {
+        runLaterWhenApplied(() -> graphicalPlayer.startTurn(() -> {
             try {
                 nextTurnChoiceQueue.put(TurnKind.DRAW_TICKETS);
             } catch (InterruptedException e1) {
@@ -143,7 +208,7 @@ public class GraphicalPlayerAdapter implements Player {
      * @return l'ensemble des billets gardés par le joueur
      */
     public SortedBag<Ticket> chooseTickets(SortedBag<Ticket> options) {
-        Platform.runLater(() -> graphicalPlayer.chooseTickets(options, t -> {
+        runLaterWhenApplied(() -> graphicalPlayer.chooseTickets(options, t -> {
             try {
                 ticketsChoiceQueue.put(t);
             } catch (InterruptedException e) {
@@ -166,7 +231,7 @@ public class GraphicalPlayerAdapter implements Player {
      */
     public int drawSlot() {
         if (cardSlotChoiceQueue.isEmpty()) {
-            Platform.runLater(() -> graphicalPlayer.drawCard(i -> {
+            runLaterWhenApplied(() -> graphicalPlayer.drawCard(i -> {
                 try {
                     cardSlotChoiceQueue.put(i);
                 } catch (InterruptedException e) {
@@ -225,7 +290,7 @@ public class GraphicalPlayerAdapter implements Player {
      */
     public SortedBag<Card> chooseAdditionalCards(
             List<SortedBag<Card>> options) {
-        Platform.runLater(
+        runLaterWhenApplied(
                 () -> graphicalPlayer.chooseAdditionalCards(options, c -> {
                     try {
                         cardsChoiceQueue.put(c);
@@ -240,4 +305,68 @@ public class GraphicalPlayerAdapter implements Player {
         }
     }
 
+    private void schedule() {
+        if (applyScheduled.compareAndSet(false, true)) {
+            Platform.runLater(pendingApplier::start);
+        }
+    }
+
+    private boolean hasPending() {
+        return pendingState.get() != null || !pendingInfos.isEmpty();
+    }
+
+    // Applique, sur le fil d'exécution JavaFX, les informations en attente
+    // puis le dernier état en attente ; retourne faux s'il n'y en avait pas
+    private boolean applyPending() {
+        boolean applied = false;
+        // Les infos en attente sont ajoutées en une seule fois
+        List<InfoEvent> events = new ArrayList<>();
+        List<String> messages = new ArrayList<>();
+        PendingInfo info;
+        while ((info = pendingInfos.poll()) != null) {
+            events.add(info.event);
+            messages.add(info.message);
+        }
+        if (!events.isEmpty()) {
+            graphicalPlayer.receiveInfos(events, messages);
+            applied = true;
+        }
+        StateUpdate update = pendingState.getAndSet(null);
+        if (update != null) {
+            graphicalPlayer.setState(update.gameState, update.playerState);
+            appliedStates.incrementAndGet();
+            applied = true;
+        }
+        return applied;
+    }
+
+    // Une demande doit être faite au joueur sur la base du dernier état reçu
+    private void runLaterWhenApplied(Runnable request) {
+        Platform.runLater(() -> {
+            applyPending();
+            request.run();
+        });
+    }
+
+    // Une info en attente, structurée ou connue seulement par son message
+    private static final class PendingInfo {
+        private final InfoEvent event;
+        private final String message;
+
+        private PendingInfo(InfoEvent event, String message) {
+            this.event = event;
+            this.message = message;
+        }
+    }
+
+    private static final class StateUpdate {
+        private final PublicGameState gameState;
+        private final PlayerState playerState;
+
+        private StateUpdate(PublicGameState gameState,
+                PlayerState playerState) {
+            this.gameState = gameState;
+            this.playerState = playerState;
+        }
+    }
 }
@@ -11,6 +11,7 @@ import java.util.List;
 import ch.epfl.tchu.SortedBag;
 import ch.epfl.tchu.game.Card;
 import ch.epfl.tchu.game.Route;
+import ch.epfl.tchu.game.Station;
 import ch.epfl.tchu.game.Trail;
 
 public final class Info {
@@ -278,9 +279,25 @@ public final class Info {
      *         l'un des plus longs
      */
     public String getsLongestTrailBonus(Trail longestTrail) {
-        return String.format(StringsFr.GETS_BONUS, playerName,
-                longestTrail.station1().name() + StringsFr.EN_DASH_SEPARATOR
-                        + longestTrail.station2().name());
+        return getsLongestTrailBonus(longestTrail.station1(),
+                longestTrail.station2());
+    }
+
+    /**
+     * Méthode qui retourne le message déclarant que le joueur obtient le bonus
+     * de fin de partie grâce au plus long chemin, qui relie les deux gares
+     * données en paramètre
+     * 
+     * @param station1(Station)
+     *            la première gare du chemin
+     * @param station2(Station)
+     *            la dernière gare du chemin
+     * @return le message déclarant que le joueur obtient le bonus de fin de
+     *         partie grâce au chemin reliant "station1" à "station2"
+     */
+    public String getsLongestTrailBonus(Station station1, Station station2) {
+        return String.format(StringsFr.GETS_BONUS, playerName, station1.name()
+                + StringsFr.EN_DASH_SEPARATOR + station2.name());
     }
 
     /**
@@ -0,0 +1,139 @@
+/*
+ *	Author:      Ahmed Kallala (315594)
+ *	Date:        12 juin 2021
+ */
+
+package ch.epfl.tchu.gui;
+
+import java.util.List;
+
+import ch.epfl.tchu.Preconditions;
+import ch.epfl.tchu.game.InfoEvent;
+import javafx.collections.ObservableListBase;
+
+/**
+ * Classe représentant l'historique des informations reçues au cours de la
+ * partie : un tampon circulaire de capacité fixe, hors du graphe de scène, qui
+ * conserve pour chaque information sa forme structurée et son message. Vu
+ * comme une liste observable (non modifiable de l'extérieur) de messages, du
+ * plus ancien au plus récent, il peut être affiché directement par une
+ * ListView, qui ne crée des cellules que pour les lignes visibles ; lorsqu'il
+ * est plein, chaque nouvelle information remplace la plus ancienne
+ * 
+ * @author ahmedkallala
+ *
+ */
+final class InfoLog extends ObservableListBase<String> {
+    private final InfoEvent[] events;
+    private final String[] messages;
+    // Index, dans les tableaux, de l'information la plus ancienne
+    private int head = 0;
+    private int size = 0;
+
+    /**
+     * Constructeur de InfoLog
+     * 
+     * @param capacity(int)
+     *            le nombre maximal d'informations conservées
+     * @throws IllegalArgumentException
+     *             si la capacité n'est pas strictement positive
+     */
+    InfoLog(int capacity) {
+        Preconditions.checkArgument(capacity > 0);
+        events = new InfoEvent[capacity];
+        messages = new String[capacity];
+    }
+
+    /**
+     * Méthode qui ajoute une information à la fin de l'historique, en
+     * retirant la plus ancienne si celui-ci est plein
+     * 
+     * @param event(InfoEvent)
+     *            l'information sous forme structurée, ou null si elle n'est
+     *            connue que par son message
+     * @param message(String)
+     *            le message de l'information
+     */
+    void append(InfoEvent event, String message) {
+        beginChange();
+        if (size == messages.length) {
+            String removed = messages[head];
+            events[head] = event;
+            messages[head] = message;
+            head = (head + 1) % messages.length;
+            nextRemove(0, removed);
+        } else {
+            int index = (head + size) % messages.length;
+            events[index] = event;
+            messages[index] = message;
+            ++size;
+        }
+        nextAdd(size - 1, size);
+        endChange();
+    }
+
+    /**
+     * Méthode qui ajoute plusieurs informations à la fin de l'historique, dans
+     * l'ordre, en ne signalant qu'un seul changement aux observateurs ; seules
+     * les plus récentes sont conservées si elles dépassent sa capacité
+     * 
+     * @param events(List<InfoEvent>)
+     *            les informations sous forme structurée, un élément valant
+     *            null si l'information n'est connue que par son message
+     * @param messages(List<String>)
+     *            les messages des informations
+     * @throws IllegalArgumentException
+     *             si les deux listes sont de tailles différentes
+     */
+    void appendAll(List<InfoEvent> events, List<String> messages) {
+        Preconditions.checkArgument(events.size() == messages.size());
+        beginChange();
+        // Les informations qui seraient aussitôt remplacées sont ignorées
+        for (int i = Math.max(0, messages.size() - this.messages.length);
+                i < messages.size(); ++i) {
+            append(events.get(i), messages.get(i));
+        }
+        endChange();
+    }
+
+    /**
+     * Méthode qui retourne l'information structurée d'index donné
+     * 
+     * @param index(int)
+     *            l'index de l'information, 0 étant la plus ancienne conservée
+     * @return l'information structurée, ou null si elle n'est connue que par
+     *         son message
+     * @throws IndexOutOfBoundsException
+     *             si l'index n'est pas compris entre 0 (inclus) et la taille
+     *             de l'historique (exclus)
+     */
+    InfoEvent event(int index) {
+        return events[arrayIndex(index)];
+    }
+
+    /**
+     * Méthode qui retourne la capacité de l'historique
+     * 
+     * @return le nombre maximal d'informations conservées
+     */
+    int capacity() {
+        return messages.length;
+    }
+
+    @Override
+    public String get(int index) {
+        return messages[arrayIndex(index)];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    private int arrayIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException();
+        }
+        return (head + index) % messages.length;
+    }
+}
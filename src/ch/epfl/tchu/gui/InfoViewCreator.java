@@ -11,6 +11,7 @@ import ch.epfl.tchu.game.PlayerId;
 import javafx.beans.binding.Bindings;
 import javafx.collections.ObservableList;
 import javafx.scene.Node;
+import javafx.scene.control.Button;
 import javafx.scene.control.Separator;
 import javafx.scene.layout.VBox;
 import javafx.scene.shape.Circle;
@@ -39,12 +40,14 @@ final class InfoViewCreator {
      * @param gameInfo(ObservableList<Text>)
      *            une liste (observable) contenant les informations sur le
      *            déroulement de la partie
+     * @param showHistory(Runnable)
+     *            action affichant l'historique des informations
      * @return la vue des informations relatives au jeu
      */
     public static Node createInfoView(PlayerId player,
             Map<PlayerId, String> playerNames,
             ObservableGameState observableGame,
-            ObservableList<Text> gameInfos) {
+            ObservableList<Text> gameInfos, Runnable showHistory) {
         VBox infoView = new VBox();
         infoView.getStylesheets().addAll("info.css", "colors.css");
         VBox playerStatsView = new VBox();
@@ -57,7 +60,9 @@ final class InfoViewCreator {
         TextFlow messages = new TextFlow();
         messages.setId("game-info");
         Bindings.bindContent(messages.getChildren(), gameInfos);
-        infoView.getChildren().addAll(messages, separator);
+        Button historyButton = new Button(StringsFr.HISTORY);
+        historyButton.setOnAction(e -> showHistory.run());
+        infoView.getChildren().addAll(messages, separator, historyButton);
         return infoView;
     }
 
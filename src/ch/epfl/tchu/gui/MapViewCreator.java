@@ -61,17 +61,26 @@ final class MapViewCreator {
     private static void createRoutesGroups(ObservableGameState observableGame,
             ObjectProperty<ClaimRouteHandler> claimRouteHP,
             CardChooser cardChooser, Pane mapView) {
-        for (Route r : ChMap.routes()) {
+        List<Route> routes = ChMap.routes();
+        for (int i = 0; i < routes.size(); ++i) {
+            Route r = routes.get(i);
             Group routeGroup = new Group();
             routeGroup.setId(r.id());
             routeGroup.getStyleClass().addAll("route", r.level().name(),
                     r.color() == null ? "NEUTRAL" : r.color().name());
             createCasesGroups(r, routeGroup);
-            observableGame.route(ChMap.routes().indexOf(r)).addListener(
-                    (o, oV, nV) -> routeGroup.getStyleClass().add(nV.name()));
-            routeGroup.disableProperty()
-                    .bind(claimRouteHP.isNull().or(observableGame
-                            .canClaimRoute(ChMap.routes().indexOf(r)).not()));
+            // Le propriétaire peut aussi être retiré ou remplacé lorsqu'un état
+            // antérieur est rejoué
+            observableGame.route(i).addListener((o, oV, nV) -> {
+                if (oV != null) {
+                    routeGroup.getStyleClass().remove(oV.name());
+                }
+                if (nV != null) {
+                    routeGroup.getStyleClass().add(nV.name());
+                }
+            });
+            routeGroup.disableProperty().bind(claimRouteHP.isNull()
+                    .or(observableGame.canClaimRoute(i).not()));
             routeGroup.setOnMouseClicked(e -> {
                 if (observableGame.possibleClaimCards(r).size() > 1) {
                     ChooseCardsHandler chooseCardsH = chosenCards -> claimRouteHP
@@ -6,8 +6,10 @@
 package ch.epfl.tchu.gui;
 
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.BitSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import ch.epfl.tchu.SortedBag;
@@ -18,7 +20,6 @@ import ch.epfl.tchu.game.PlayerId;
 import ch.epfl.tchu.game.PlayerState;
 import ch.epfl.tchu.game.PublicGameState;
 import ch.epfl.tchu.game.Route;
-import ch.epfl.tchu.game.Station;
 import ch.epfl.tchu.game.Ticket;
 import javafx.beans.property.BooleanProperty;
 import javafx.beans.property.IntegerProperty;
@@ -31,6 +32,7 @@ import javafx.beans.property.SimpleIntegerProperty;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.collections.ObservableSet;
 
 /**
  * Classe qui représente l'état observable du jeu et du joueur qui lui est
@@ -40,6 +42,10 @@ import javafx.collections.ObservableList;
  *
  */
 public final class ObservableGameState {
+    private static final Map<Route, Integer> ROUTE_INDEXES = routeIndexes();
+    // Index de l'autre voie de chaque route double, ou -1
+    private static final int[] NEIGHBOUR_ROUTES = neighbourRoutes();
+
     private final PlayerId player;
     private final List<ObjectProperty<Card>> faceUpCards = createFaceUpCards();
     private final IntegerProperty cardsPercentage = new SimpleIntegerProperty();
@@ -51,8 +57,14 @@ public final class ObservableGameState {
     private final List<IntegerProperty> claimPoints = createPublicPlayerStateComponents();
     private final ObservableList<Ticket> tickets = FXCollections
             .observableArrayList();
+    private final ObservableSet<Ticket> completedTickets = FXCollections
+            .observableSet();
     private final List<IntegerProperty> countOfEachKindOfCard = createCountOfEachKindOfCard();
     private final List<BooleanProperty> canClaimRoute = createCanClaimRoute();
+    // Propriétaire de chaque route, et routes dont le propriétaire (ou celui
+    // de leur voisine) a changé lors de la dernière mise à jour
+    private final PlayerId[] routeOwners = new PlayerId[ChMap.routes().size()];
+    private final BitSet changedRoutes = new BitSet(ChMap.routes().size());
     private PublicGameState gameState = null;
     private PlayerState playerState = null;
 
@@ -68,7 +80,7 @@ public final class ObservableGameState {
 
     /**
      * Méthode qui met à jour la totalité des propriétés contenues dans l'objet
-     * courant
+     * courant ; seul ce qui a changé depuis l'état précédent est recalculé
      * 
      * @param newGameState(PublicGameState)
      *            l'état publique du jeu en cours
@@ -77,6 +89,8 @@ public final class ObservableGameState {
      */
     public void setState(PublicGameState newGameState,
             PlayerState newPlayerState) {
+        PublicGameState previousGameState = gameState;
+        PlayerState previousPlayerState = playerState;
         gameState = newGameState;
         playerState = newPlayerState;
         setFaceUpCards(newGameState);
@@ -84,11 +98,44 @@ public final class ObservableGameState {
                 / Constants.TOTAL_CARDS_COUNT);
         ticketsPercentage.set(
                 (100 * newGameState.ticketsCount()) / ChMap.tickets().size());
-        setRoutes(newGameState);
+        setRoutes(previousGameState, newGameState);
         setPublicPlayerStateComponents(newGameState);
-        tickets.setAll(newPlayerState.tickets().toList());
+        boolean ticketsChanged = previousPlayerState == null
+                || !previousPlayerState.tickets()
+                        .equals(newPlayerState.tickets());
+        if (ticketsChanged || !previousPlayerState.routes()
+                .equals(newPlayerState.routes())) {
+            setCompletedTickets(newPlayerState);
+        }
+        if (ticketsChanged) {
+            tickets.setAll(newPlayerState.tickets().toList());
+        }
         setCountOfEachKindOfCard(newPlayerState);
-        setCanClaimRoute(newPlayerState, newGameState);
+        setCanClaimRoute(previousGameState, previousPlayerState,
+                newGameState, newPlayerState);
+    }
+
+    private static Map<Route, Integer> routeIndexes() {
+        Map<Route, Integer> routeIndexes = new HashMap<>();
+        for (int i = 0; i < ChMap.routes().size(); ++i) {
+            routeIndexes.put(ChMap.routes().get(i), i);
+        }
+        return routeIndexes;
+    }
+
+    private static int[] neighbourRoutes() {
+        List<Route> routes = ChMap.routes();
+        int[] neighbourRoutes = new int[routes.size()];
+        for (int i = 0; i < routes.size(); ++i) {
+            neighbourRoutes[i] = -1;
+            for (int j = 0; j < routes.size(); ++j) {
+                if (j != i && routes.get(j).stations()
+                        .equals(routes.get(i).stations())) {
+                    neighbourRoutes[i] = j;
+                }
+            }
+        }
+        return neighbourRoutes;
     }
 
     private static List<ObjectProperty<Card>> createFaceUpCards() {
@@ -151,42 +198,76 @@ public final class ObservableGameState {
         }
     }
 
-    private void setRoutes(PublicGameState newGameState) {
-        for (Route r : ChMap.routes()) {
-            if (newGameState.playerState(PlayerId.PLAYER_1).routes()
-                    .contains(r)) {
-                routes.get(ChMap.routes().indexOf(r)).set(PlayerId.PLAYER_1);
-            } else if (newGameState.playerState(PlayerId.PLAYER_2).routes()
-                    .contains(r)) {
-                routes.get(ChMap.routes().indexOf(r)).set(PlayerId.PLAYER_2);
+    // Les routes d'un joueur ne font normalement que s'allonger : seules les
+    // nouvelles sont alors appliquées, sinon toutes ses routes sont
+    // réexaminées
+    private void setRoutes(PublicGameState previousGameState,
+            PublicGameState newGameState) {
+        changedRoutes.clear();
+        int[] appliedRoutesCount = new int[PlayerId.COUNT];
+        for (PlayerId id : PlayerId.ALL) {
+            List<Route> previousRoutes = previousGameState == null ? List.of()
+                    : previousGameState.playerState(id).routes();
+            List<Route> newRoutes = newGameState.playerState(id).routes();
+            if (newRoutes.size() >= previousRoutes.size() && newRoutes
+                    .subList(0, previousRoutes.size()).equals(previousRoutes)) {
+                appliedRoutesCount[id.ordinal()] = previousRoutes.size();
             } else {
-                routes.get(ChMap.routes().indexOf(r)).set(null);
+                for (Route r : previousRoutes) {
+                    setRouteOwner(ROUTE_INDEXES.get(r), null);
+                }
+            }
+        }
+        for (PlayerId id : PlayerId.ALL) {
+            List<Route> newRoutes = newGameState.playerState(id).routes();
+            for (Route r : newRoutes.subList(appliedRoutesCount[id.ordinal()],
+                    newRoutes.size())) {
+                setRouteOwner(ROUTE_INDEXES.get(r), id);
             }
         }
     }
 
-    private void setCanClaimRoute(PlayerState newPlayerState,
-            PublicGameState newGameState) {
-        boolean isClaimable = true;
-        for (Route r : ChMap.routes()) {
-            if (newGameState.claimedRoutes().contains(r)
-                    || neighbours(newGameState).contains(r.stations())) {
-                isClaimable = false;
+    private void setRouteOwner(int routeIndex, PlayerId owner) {
+        if (routeOwners[routeIndex] != owner) {
+            routeOwners[routeIndex] = owner;
+            routes.get(routeIndex).set(owner);
+            changedRoutes.set(routeIndex);
+            if (NEIGHBOUR_ROUTES[routeIndex] != -1) {
+                changedRoutes.set(NEIGHBOUR_ROUTES[routeIndex]);
             }
-            canClaimRoute.get(ChMap.routes().indexOf(r))
-                    .set(newPlayerState.canClaimRoute(r)
-                            && newGameState.currentPlayerId() == player
-                            && isClaimable);
-            isClaimable = true;
         }
     }
 
-    private Set<List<Station>> neighbours(PublicGameState newGameState) {
-        Set<List<Station>> claimedRoutesStations = new HashSet<>();
-        for (Route r : newGameState.claimedRoutes()) {
-            claimedRoutesStations.add(r.stations());
+    // Une route ne peut être prise que par le joueur courant, si ni elle ni
+    // sa voisine n'appartiennent à quelqu'un ; tant que le joueur courant, les
+    // wagons et les cartes du joueur ne changent pas, seules les routes dont
+    // le propriétaire a changé sont réexaminées
+    private void setCanClaimRoute(PublicGameState previousGameState,
+            PlayerState previousPlayerState, PublicGameState newGameState,
+            PlayerState newPlayerState) {
+        boolean isPlaying = newGameState.currentPlayerId() == player;
+        if (previousGameState == null
+                || previousGameState.currentPlayerId() != newGameState
+                        .currentPlayerId()
+                || previousPlayerState.carCount() != newPlayerState.carCount()
+                || !previousPlayerState.cards()
+                        .equals(newPlayerState.cards())) {
+            changedRoutes.set(0, ChMap.routes().size());
+        }
+        for (int i = changedRoutes.nextSetBit(0); i >= 0; i = changedRoutes
+                .nextSetBit(i + 1)) {
+            int neighbour = NEIGHBOUR_ROUTES[i];
+            canClaimRoute.get(i).set(isPlaying && routeOwners[i] == null
+                    && (neighbour == -1 || routeOwners[neighbour] == null)
+                    && newPlayerState.canClaimRoute(ChMap.routes().get(i)));
         }
-        return claimedRoutesStations;
+    }
+
+    private void setCompletedTickets(PlayerState newPlayerState) {
+        Set<Ticket> newCompletedTickets = newPlayerState.completedTickets()
+                .toSet();
+        completedTickets.retainAll(newCompletedTickets);
+        completedTickets.addAll(newCompletedTickets);
     }
 
     private void setCountOfEachKindOfCard(PlayerState newPlayerState) {
@@ -287,6 +368,16 @@ public final class ObservableGameState {
         return FXCollections.unmodifiableObservableList(tickets);
     }
 
+    /**
+     * Méthode qui retourne l'ensemble observable des billets du joueur qui
+     * sont actuellement réalisés ; il est mis à jour avant la liste tickets
+     * 
+     * @return completedTickets
+     */
+    public ObservableSet<Ticket> completedTickets() {
+        return FXCollections.unmodifiableObservableSet(completedTickets);
+    }
+
     /**
      * Méthode qui retourne l'élément à la position "slot" de la liste
      * countOfEachKindOfCard
@@ -0,0 +1,85 @@
+/*
+ *	Author:      Ahmed Kallala (315594)
+ *	Date:        10 juin 2021
+ */
+
+package ch.epfl.tchu.gui;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.ChMap;
+import ch.epfl.tchu.game.Game;
+import ch.epfl.tchu.game.PlayerId;
+import ch.epfl.tchu.game.PlayerState;
+import ch.epfl.tchu.game.PublicGameState;
+import ch.epfl.tchu.game.RandomPlayer;
+
+/**
+ * Classe mesurant la latence de ObservableGameState.setState : elle enregistre
+ * les états reçus par le premier joueur au cours d'une partie entre deux
+ * RandomPlayer, puis les applique de nombreuses fois à un nouvel état
+ * observable et affiche la durée moyenne d'un appel à setState, sur toute la
+ * partie et sur son dernier quart (où les routes possédées sont les plus
+ * nombreuses)
+ * 
+ * Arguments (facultatifs) : nombre de répétitions, graine de la partie
+ * 
+ * @author ahmedkallala
+ *
+ */
+public final class ObservableGameStateBenchmark {
+    private static final int DEFAULT_REPETITIONS = 5000;
+    private static final long DEFAULT_SEED = 2021;
+
+    private ObservableGameStateBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        int repetitions = args.length > 0 ? Integer.parseInt(args[0])
+                : DEFAULT_REPETITIONS;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : DEFAULT_SEED;
+
+        RecordingPlayer recorder = new RecordingPlayer(
+                new RandomPlayer(new Random(seed + 1)));
+        Game.play(
+                Map.of(PlayerId.PLAYER_1, recorder, PlayerId.PLAYER_2,
+                        new RandomPlayer(new Random(seed + 2))),
+                Map.of(PlayerId.PLAYER_1, "Ada", PlayerId.PLAYER_2,
+                        "Charles"),
+                SortedBag.of(ChMap.tickets()), new Random(seed), false);
+        List<PublicGameState> gameStates = recorder.gameStates();
+        List<PlayerState> playerStates = recorder.playerStates();
+        int lateStart = 3 * gameStates.size() / 4;
+
+        long fullGame = 0;
+        long lateGame = 0;
+        // Le premier quart des répétitions sert d'échauffement
+        for (int i = -repetitions / 4; i < repetitions; ++i) {
+            ObservableGameState state = new ObservableGameState(
+                    PlayerId.PLAYER_1);
+            long start = System.nanoTime();
+            for (int j = 0; j < lateStart; ++j) {
+                state.setState(gameStates.get(j), playerStates.get(j));
+            }
+            long late = System.nanoTime();
+            for (int j = lateStart; j < gameStates.size(); ++j) {
+                state.setState(gameStates.get(j), playerStates.get(j));
+            }
+            long end = System.nanoTime();
+            if (i >= 0) {
+                fullGame += end - start;
+                lateGame += end - late;
+            }
+        }
+
+        System.out.printf("%d états, dont %d en fin de partie%n",
+                gameStates.size(), gameStates.size() - lateStart);
+        System.out.printf("setState : %.0f ns (partie), %.0f ns (fin)%n",
+                (double) fullGame / ((long) repetitions * gameStates.size()),
+                (double) lateGame / ((long) repetitions
+                        * (gameStates.size() - lateStart)));
+    }
+}
@@ -0,0 +1,249 @@
+/*
+ *	Author:      Ahmed Kallala (315594)
+ *	Date:        11 juin 2021
+ */
+
+package ch.epfl.tchu.gui;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import ch.epfl.tchu.Preconditions;
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.PlayerId;
+import ch.epfl.tchu.game.PlayerState;
+import ch.epfl.tchu.game.PublicGameState;
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+import javafx.beans.property.BooleanProperty;
+import javafx.beans.property.IntegerProperty;
+import javafx.beans.property.ReadOnlyBooleanProperty;
+import javafx.beans.property.ReadOnlyIntegerProperty;
+import javafx.beans.property.SimpleBooleanProperty;
+import javafx.beans.property.SimpleIntegerProperty;
+
+/**
+ * Classe représentant un contrôleur de lecture, qui rejoue une suite d'états
+ * enregistrés (par exemple une partie entre deux joueurs automatiques) dans un
+ * état observable, et donc dans l'interface graphique qui l'affiche.
+ * 
+ * La lecture avance d'au plus un état par impulsion (pulse) JavaFX : lorsque
+ * la vitesse fait défiler plusieurs états pendant une impulsion, seul le
+ * dernier est appliqué, ObservableGameState ne recalculant que ce qui a changé
+ * depuis l'état précédemment affiché. Toutes les méthodes doivent être
+ * appelées sur le fil d'exécution JavaFX
+ * 
+ * @author ahmedkallala
+ *
+ */
+public final class PlaybackController {
+    /**
+     * Vitesse minimale de lecture
+     */
+    public static final double MIN_SPEED = 1;
+    /**
+     * Vitesse maximale de lecture
+     */
+    public static final double MAX_SPEED = 100;
+
+    // Nombre d'états affichés par seconde à la vitesse 1, qui correspond
+    // approximativement au rythme d'une partie entre joueurs humains
+    private static final double STATES_PER_SECOND = 2;
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    private final ObservableGameState observableGame;
+    private final Runnable stateApplied;
+    private final IntegerProperty position = new SimpleIntegerProperty(-1);
+    private final BooleanProperty playing = new SimpleBooleanProperty(false);
+    private final AnimationTimer timer = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            advance(now);
+        }
+    };
+    private List<PublicGameState> gameStates = List.of();
+    private List<PlayerState> playerStates = List.of();
+    private double speed = MIN_SPEED;
+    // Instant et position à partir desquels la position courante est calculée
+    private long startTime = -1;
+    private int startPosition = 0;
+
+    /**
+     * Constructeur de PlaybackController
+     * 
+     * @param observableGame(ObservableGameState)
+     *            l'état observable dans lequel les états sont rejoués
+     */
+    public PlaybackController(ObservableGameState observableGame) {
+        this(observableGame, () -> {
+        });
+    }
+
+    /**
+     * Constructeur de PlaybackController
+     * 
+     * @param observableGame(ObservableGameState)
+     *            l'état observable dans lequel les états sont rejoués
+     * @param stateApplied(Runnable)
+     *            action exécutée après chaque état appliqué
+     */
+    PlaybackController(ObservableGameState observableGame,
+            Runnable stateApplied) {
+        this.observableGame = observableGame;
+        this.stateApplied = stateApplied;
+    }
+
+    /**
+     * Méthode qui arrête la lecture en cours et charge une nouvelle suite
+     * d'états, dont le premier est immédiatement affiché
+     * 
+     * @param gameStates(List<PublicGameState>)
+     *            les états publics à rejouer, dans l'ordre
+     * @param playerStates(List<PlayerState>)
+     *            les états du joueur correspondants
+     * @throws IllegalArgumentException
+     *             si les deux listes sont vides ou de tailles différentes
+     */
+    public void load(List<PublicGameState> gameStates,
+            List<PlayerState> playerStates) {
+        Preconditions.checkArgument(!gameStates.isEmpty()
+                && gameStates.size() == playerStates.size());
+        pause();
+        this.gameStates = List.copyOf(gameStates);
+        this.playerStates = List.copyOf(playerStates);
+        position.set(-1);
+        seek(0);
+    }
+
+    /**
+     * Méthode qui charge une suite d'états publics seuls (par exemple ceux
+     * reçus par un spectateur) ; l'état du joueur affiché est alors réduit à
+     * ses routes
+     * 
+     * @param player(PlayerId)
+     *            le joueur dont l'état observable est rejoué
+     * @param gameStates(List<PublicGameState>)
+     *            les états publics à rejouer, dans l'ordre
+     * @throws IllegalArgumentException
+     *             si la liste est vide
+     */
+    public void load(PlayerId player, List<PublicGameState> gameStates) {
+        List<PlayerState> playerStates = new ArrayList<>();
+        for (PublicGameState gameState : gameStates) {
+            playerStates.add(new PlayerState(SortedBag.of(), SortedBag.of(),
+                    gameState.playerState(player).routes()));
+        }
+        load(gameStates, playerStates);
+    }
+
+    /**
+     * Méthode qui lance (ou reprend) la lecture à la vitesse courante
+     */
+    public void play() {
+        assert Platform.isFxApplicationThread();
+        if (!playing.get() && position.get() < gameStates.size() - 1) {
+            playing.set(true);
+            startTime = -1;
+            timer.start();
+        }
+    }
+
+    /**
+     * Méthode qui suspend la lecture
+     */
+    public void pause() {
+        assert Platform.isFxApplicationThread();
+        playing.set(false);
+        timer.stop();
+    }
+
+    /**
+     * Méthode qui affiche l'état d'index donné, sans modifier l'état de la
+     * lecture
+     * 
+     * @param index(int)
+     *            l'index de l'état à afficher
+     * @throws IndexOutOfBoundsException
+     *             si l'index n'est pas celui d'un état chargé
+     */
+    public void seek(int index) {
+        assert Platform.isFxApplicationThread();
+        if (index != position.get()) {
+            apply(index);
+        }
+        startTime = -1;
+    }
+
+    /**
+     * Méthode qui affiche directement le dernier état et arrête la lecture
+     */
+    public void skipToEnd() {
+        pause();
+        seek(gameStates.size() - 1);
+    }
+
+    /**
+     * Méthode qui modifie la vitesse de lecture
+     * 
+     * @param speed(double)
+     *            la nouvelle vitesse, entre MIN_SPEED et MAX_SPEED
+     * @throws IllegalArgumentException
+     *             si la vitesse n'est pas comprise entre MIN_SPEED et
+     *             MAX_SPEED
+     */
+    public void setSpeed(double speed) {
+        Preconditions.checkArgument(MIN_SPEED <= speed && speed <= MAX_SPEED);
+        this.speed = speed;
+        // La position atteinte jusqu'ici est conservée
+        startTime = -1;
+    }
+
+    /**
+     * Méthode qui retourne la propriété contenant l'index de l'état affiché
+     * 
+     * @return l'index de l'état affiché
+     */
+    public ReadOnlyIntegerProperty position() {
+        return position;
+    }
+
+    /**
+     * Méthode qui retourne la propriété indiquant si la lecture est en cours
+     * 
+     * @return vrai si la lecture est en cours
+     */
+    public ReadOnlyBooleanProperty playing() {
+        return playing;
+    }
+
+    /**
+     * Méthode qui retourne le nombre d'états chargés
+     * 
+     * @return le nombre d'états chargés
+     */
+    public int statesCount() {
+        return gameStates.size();
+    }
+
+    private void advance(long now) {
+        if (startTime == -1) {
+            startTime = now;
+            startPosition = position.get();
+            return;
+        }
+        int target = startPosition + (int) ((now - startTime)
+                / NANOS_PER_SECOND * STATES_PER_SECOND * speed);
+        int last = gameStates.size() - 1;
+        if (target >= last) {
+            skipToEnd();
+        } else if (target != position.get()) {
+            apply(target);
+        }
+    }
+
+    private void apply(int index) {
+        observableGame.setState(gameStates.get(index), playerStates.get(index));
+        position.set(index);
+        stateApplied.run();
+    }
+}
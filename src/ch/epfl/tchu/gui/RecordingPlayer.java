@@ -0,0 +1,120 @@
+/*
+ *	Author:      Ahmed Kallala (315594)
+ *	Date:        11 juin 2021
+ */
+
+package ch.epfl.tchu.gui;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.Card;
+import ch.epfl.tchu.game.Player;
+import ch.epfl.tchu.game.PlayerId;
+import ch.epfl.tchu.game.PlayerState;
+import ch.epfl.tchu.game.PublicGameState;
+import ch.epfl.tchu.game.Route;
+import ch.epfl.tchu.game.Ticket;
+
+/**
+ * Classe représentant un joueur qui transmet tous les appels à un autre joueur
+ * et enregistre les états qu'il reçoit, afin de pouvoir les rejouer
+ * 
+ * @author ahmedkallala
+ *
+ */
+final class RecordingPlayer implements Player {
+    private final Player player;
+    private final List<PublicGameState> gameStates = new ArrayList<>();
+    private final List<PlayerState> playerStates = new ArrayList<>();
+
+    /**
+     * Constructeur de RecordingPlayer
+     * 
+     * @param player(Player)
+     *            le joueur auquel les appels sont transmis
+     */
+    RecordingPlayer(Player player) {
+        this.player = player;
+    }
+
+    /**
+     * Méthode qui retourne les états publics reçus jusqu'ici, dans l'ordre
+     * 
+     * @return les états publics reçus
+     */
+    List<PublicGameState> gameStates() {
+        return Collections.unmodifiableList(gameStates);
+    }
+
+    /**
+     * Méthode qui retourne les états du joueur reçus jusqu'ici, dans l'ordre
+     * (le i-ème accompagnant le i-ème état public)
+     * 
+     * @return les états du joueur reçus
+     */
+    List<PlayerState> playerStates() {
+        return Collections.unmodifiableList(playerStates);
+    }
+
+    @Override
+    public void initPlayers(PlayerId ownId, Map<PlayerId, String> playerNames) {
+        player.initPlayers(ownId, playerNames);
+    }
+
+    @Override
+    public void receiveInfo(String info) {
+        player.receiveInfo(info);
+    }
+
+    @Override
+    public void updateState(PublicGameState newState, PlayerState ownState) {
+        gameStates.add(newState);
+        playerStates.add(ownState);
+        player.updateState(newState, ownState);
+    }
+
+    @Override
+    public void setInitialTicketChoice(SortedBag<Ticket> tickets) {
+        player.setInitialTicketChoice(tickets);
+    }
+
+    @Override
+    public SortedBag<Ticket> chooseInitialTickets() {
+        return player.chooseInitialTickets();
+    }
+
+    @Override
+    public TurnKind nextTurn() {
+        return player.nextTurn();
+    }
+
+    @Override
+    public SortedBag<Ticket> chooseTickets(SortedBag<Ticket> options) {
+        return player.chooseTickets(options);
+    }
+
+    @Override
+    public int drawSlot() {
+        return player.drawSlot();
+    }
+
+    @Override
+    public Route claimedRoute() {
+        return player.claimedRoute();
+    }
+
+    @Override
+    public SortedBag<Card> initialClaimCards() {
+        return player.initialClaimCards();
+    }
+
+    @Override
+    public SortedBag<Card> chooseAdditionalCards(
+            List<SortedBag<Card>> options) {
+        return player.chooseAdditionalCards(options);
+    }
+}
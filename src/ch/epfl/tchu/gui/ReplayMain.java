@@ -0,0 +1,106 @@
+/*
+ *	Author:      Ahmed Kallala (315594)
+ *	Date:        11 juin 2021
+ */
+
+package ch.epfl.tchu.gui;
+
+import java.util.Map;
+import java.util.Random;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.ChMap;
+import ch.epfl.tchu.game.Game;
+import ch.epfl.tchu.game.PlayerId;
+import ch.epfl.tchu.game.RandomPlayer;
+import javafx.application.Application;
+import javafx.beans.binding.Bindings;
+import javafx.scene.Scene;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.Slider;
+import javafx.scene.layout.HBox;
+import javafx.stage.Stage;
+
+/**
+ * Classe exécutant le mode de relecture : des parties entre deux RandomPlayer
+ * sont jouées puis rejouées en accéléré dans l'interface graphique du premier
+ * joueur, à une vitesse choisie entre 1x et 100x
+ * 
+ * Argument (facultatif) : graine de la première partie, les suivantes
+ * utilisant les graines consécutives
+ * 
+ * @author ahmedkallala
+ *
+ */
+public final class ReplayMain extends Application {
+    private static final long DEFAULT_SEED = 2021;
+    private static final Map<PlayerId, String> PLAYER_NAMES = Map
+            .of(PlayerId.PLAYER_1, "Ada", PlayerId.PLAYER_2, "Charles");
+
+    private long seed;
+
+    public static void main(String[] args) {
+        launch(args);
+    }
+
+    @Override
+    public void start(Stage primaryStage) throws Exception {
+        seed = getParameters().getRaw().isEmpty() ? DEFAULT_SEED
+                : Long.parseLong(getParameters().getRaw().get(0));
+        GraphicalPlayer graphicalPlayer = new GraphicalPlayer(
+                PlayerId.PLAYER_1, PLAYER_NAMES);
+        PlaybackController playback = graphicalPlayer.playback();
+        CssPassMeter cssPassMeter = graphicalPlayer.cssPassMeter();
+
+        Slider speed = new Slider(PlaybackController.MIN_SPEED,
+                PlaybackController.MAX_SPEED, PlaybackController.MIN_SPEED);
+        speed.valueProperty()
+                .addListener((o, oV, nV) -> playback.setSpeed(nV.doubleValue()));
+        Button playPause = new Button();
+        playPause.textProperty().bind(Bindings.when(playback.playing())
+                .then("Pause").otherwise("Lecture"));
+        playPause.setOnAction(e -> {
+            if (playback.playing().get()) {
+                playback.pause();
+            } else {
+                playback.play();
+            }
+        });
+        Button skipToEnd = new Button("Fin");
+        skipToEnd.setOnAction(e -> playback.skipToEnd());
+        Button nextGame = new Button("Partie suivante");
+        nextGame.setOnAction(e -> {
+            ++seed;
+            cssPassMeter.reset();
+            loadGame(playback);
+        });
+        Label position = new Label();
+        // Les passes mesurées sont celles qui précèdent l'état affiché
+        position.textProperty().bind(Bindings.createStringBinding(
+                () -> String.format("Partie %d, état %d/%d, passe CSS %.0f µs",
+                        seed, playback.position().get() + 1,
+                        playback.statesCount(),
+                        cssPassMeter.averagePassNanos() / 1000),
+                playback.position()));
+
+        primaryStage.setTitle("tCHu \u2014 relecture");
+        primaryStage.setScene(new Scene(new HBox(speed, playPause, skipToEnd,
+                nextGame, position)));
+        primaryStage.show();
+
+        loadGame(playback);
+    }
+
+    private void loadGame(PlaybackController playback) {
+        RecordingPlayer recorder = new RecordingPlayer(
+                new RandomPlayer(new Random(seed + 1)));
+        Game.play(
+                Map.of(PlayerId.PLAYER_1, recorder, PlayerId.PLAYER_2,
+                        new RandomPlayer(new Random(seed + 2))),
+                PLAYER_NAMES, SortedBag.of(ChMap.tickets()), new Random(seed),
+                false);
+        playback.load(recorder.gameStates(), recorder.playerStates());
+        playback.play();
+    }
+}
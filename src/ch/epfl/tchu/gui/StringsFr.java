@@ -19,10 +19,12 @@ public final class StringsFr {
     public static final String TICKETS = "Billets";
     public static final String CARDS = "Cartes";
     public static final String CHOOSE = "Choisir";
+    public static final String HISTORY = "Historique";
 
     // Titre des fenêtres
     public static final String TICKETS_CHOICE = "Choix de billets";
     public static final String CARDS_CHOICE = "Choix de cartes";
+    public static final String HISTORY_WINDOW = "Historique de la partie";
 
     // Invites
     public static final String CHOOSE_TICKETS = "Choisissez au moins %s billet%s parmi ceux-ci :";
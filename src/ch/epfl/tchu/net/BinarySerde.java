@@ -0,0 +1,171 @@
+/*
+ *	Author:      Ahmed Kallala (315594)
+ *	Date:        3 juin 2021
+ */
+
+package ch.epfl.tchu.net;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import ch.epfl.tchu.Preconditions;
+import ch.epfl.tchu.SortedBag;
+
+/**
+ * Interface représentant un objet capable de sérialiser des valeurs d'un type
+ * E sous forme binaire, dans un tampon d'octets, et de les y désérialiser ;
+ * c'est l'équivalent binaire de Serde
+ * 
+ * @author ahmedkallala
+ *
+ * @param <E>
+ *            le type des valeurs à sérialiser ou désérialiser
+ */
+public interface BinarySerde<E> {
+    /**
+     * Méthode qui écrit la sérialisation de l'objet "toSerialize" donné en
+     * paramètre à la position courante du tampon "buffer"
+     * 
+     * @param toSerialize
+     *            l'objet à sérialiser
+     * @param buffer(ByteBuffer)
+     *            le tampon dans lequel écrire la sérialisation
+     */
+    public abstract void serialize(E toSerialize, ByteBuffer buffer);
+
+    /**
+     * Méthode qui lit un objet sérialisé à la position courante du tampon
+     * "buffer" donné en paramètre
+     * 
+     * @param buffer(ByteBuffer)
+     *            le tampon duquel lire la sérialisation
+     * @return l'objet désérialisé
+     */
+    public abstract E deserialize(ByteBuffer buffer);
+
+    /**
+     * Méthode qui retourne un serde binaire permettant de (dé)sérialiser un
+     * objet au moyen des fonctions de sérialisation et désérialisation données
+     * en paramètres
+     * 
+     * @param <E>
+     *            le type de l'objet à (dé)sérialiser
+     * @param serializer(BiConsumer<E,
+     *            ByteBuffer>) la fonction de sérialisation
+     * @param deserializer(Function<ByteBuffer,
+     *            E>) la fonction de désérialisation
+     * @return le serde binaire permettant de (dé)sérialiser un objet de type E
+     */
+    public static <E> BinarySerde<E> of(BiConsumer<E, ByteBuffer> serializer,
+            Function<ByteBuffer, E> deserializer) {
+        return new BinarySerde<E>() {
+            public void serialize(E toSerialize, ByteBuffer buffer) {
+                serializer.accept(toSerialize, buffer);
+            }
+
+            public E deserialize(ByteBuffer buffer) {
+                return deserializer.apply(buffer);
+            }
+        };
+    }
+
+    /**
+     * Méthode qui retourne un serde binaire permettant de (dé)sérialiser un
+     * objet de la liste donnée en paramètre, ou null, sous la forme d'un seul
+     * octet : l'index de l'objet dans la liste, calculé une fois pour toutes
+     * 
+     * @param <E>
+     *            le type des objets contenus dans la liste "values"
+     * @param values(List)
+     *            liste dont on souhaite (dé)sérialiser un des objets
+     * @return un serde binaire permettant de (dé)sérialiser un objet de
+     *         "values"
+     * @throws IllegalArgumentException
+     *             si la liste contient plus de 255 éléments
+     */
+    public static <E> BinarySerde<E> oneOf(List<E> values) {
+        Preconditions.checkArgument(values.size() < BinarySerdes.NULL_INDEX);
+        Map<E, Integer> indexes = Serde.indexes(values);
+        return new BinarySerde<E>() {
+            public void serialize(E toSerialize, ByteBuffer buffer) {
+                // null, comme tout objet absent de la liste, n'a pas d'index
+                buffer.put((byte) (int) indexes.getOrDefault(toSerialize,
+                        BinarySerdes.NULL_INDEX));
+            }
+
+            public E deserialize(ByteBuffer buffer) {
+                int index = Byte.toUnsignedInt(buffer.get());
+                return index == BinarySerdes.NULL_INDEX ? null
+                        : values.get(index);
+            }
+        };
+    }
+
+    /**
+     * Méthode qui retourne un serde binaire permettant de (dé)sérialiser une
+     * liste, sous la forme de sa taille suivie de ses éléments
+     * 
+     * @param <E>
+     *            le type des objets de la liste à (dé)sérialiser
+     * @param serde(BinarySerde<E>)
+     *            le serde binaire correspondant au type des éléments de la
+     *            liste
+     * @return un serde binaire permettant de (dé)sérialiser une liste
+     */
+    public static <E> BinarySerde<List<E>> listOf(BinarySerde<E> serde) {
+        return new BinarySerde<List<E>>() {
+            public void serialize(List<E> toSerialize, ByteBuffer buffer) {
+                BinarySerdes.putVarInt(buffer, toSerialize.size());
+                for (E e : toSerialize) {
+                    serde.serialize(e, buffer);
+                }
+            }
+
+            public List<E> deserialize(ByteBuffer buffer) {
+                int size = BinarySerdes.getVarInt(buffer);
+                List<E> deserialized = new ArrayList<>(size);
+                for (int i = 0; i < size; ++i) {
+                    deserialized.add(serde.deserialize(buffer));
+                }
+                return deserialized;
+            }
+        };
+    }
+
+    /**
+     * Méthode qui retourne un serde binaire permettant de (dé)sérialiser un
+     * objet de type SortedBag, sous la forme de sa taille suivie de ses
+     * éléments
+     * 
+     * @param <E>
+     *            le type des objets du SortedBag à (dé)sérialiser
+     * @param serde(BinarySerde<E>)
+     *            le serde binaire correspondant au type des éléments du
+     *            SortedBag
+     * @return un serde binaire permettant de (dé)sérialiser un SortedBag
+     */
+    public static <E extends Comparable<E>> BinarySerde<SortedBag<E>> bagOf(
+            BinarySerde<E> serde) {
+        return new BinarySerde<SortedBag<E>>() {
+            public void serialize(SortedBag<E> toSerialize, ByteBuffer buffer) {
+                BinarySerdes.putVarInt(buffer, toSerialize.size());
+                for (E e : toSerialize) {
+                    serde.serialize(e, buffer);
+                }
+            }
+
+            public SortedBag<E> deserialize(ByteBuffer buffer) {
+                int size = BinarySerdes.getVarInt(buffer);
+                SortedBag.Builder<E> deserialized = new SortedBag.Builder<E>();
+                for (int i = 0; i < size; ++i) {
+                    deserialized.add(serde.deserialize(buffer));
+                }
+                return deserialized.build();
+            }
+        };
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ *	Author:      Ahmed Kallala (315594)
+ *	Date:        3 juin 2021
+ */
+
+package ch.epfl.tchu.net;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.Card;
+import ch.epfl.tchu.game.ChMap;
+import ch.epfl.tchu.game.InfoEvent;
+import ch.epfl.tchu.game.Player.TurnKind;
+import ch.epfl.tchu.game.PlayerId;
+import ch.epfl.tchu.game.PlayerState;
+import ch.epfl.tchu.game.PublicCardState;
+import ch.epfl.tchu.game.PublicGameState;
+import ch.epfl.tchu.game.PublicPlayerState;
+import ch.epfl.tchu.game.Route;
+import ch.epfl.tchu.game.Station;
+import ch.epfl.tchu.game.Ticket;
+
+/**
+ * Classe contenant les serdes binaires utilisés dans le jeu, un pour chacun
+ * des serdes de Serdes ; les entiers y sont encodés sur un nombre variable
+ * d'octets (7 bits par octet, le bit de poids fort indiquant la présence d'un
+ * octet suivant) et les cartes, routes et billets par leur index sur un octet
+ * 
+ * @author ahmedkallala
+ *
+ */
+public final class BinarySerdes {
+    static final int NULL_INDEX = 0xFF;
+    private static final int VAR_INT_PAYLOAD_BITS = 7;
+    private static final int VAR_INT_PAYLOAD_MASK = 0x7F;
+    static final int VAR_INT_CONTINUATION_BIT = 0x80;
+
+    public static final BinarySerde<Integer> INTEGER = BinarySerde.of(
+            (i, b) -> putVarInt(b, (i << 1) ^ (i >> 31)), b -> {
+                int zigZag = getVarInt(b);
+                return (zigZag >>> 1) ^ -(zigZag & 1);
+            });
+
+    public static final BinarySerde<String> STRING = BinarySerde.of((s, b) -> {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        putVarInt(b, bytes.length);
+        b.put(bytes);
+    }, b -> {
+        byte[] bytes = new byte[getVarInt(b)];
+        b.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    });
+
+    public static final BinarySerde<PlayerId> PLAYER_ID = BinarySerde
+            .oneOf(PlayerId.ALL);
+
+    public static final BinarySerde<TurnKind> TURN_KIND = BinarySerde
+            .oneOf(TurnKind.ALL);
+
+    public static final BinarySerde<Card> CARD = BinarySerde.oneOf(Card.ALL);
+
+    public static final BinarySerde<Route> ROUTE = BinarySerde
+            .oneOf(ChMap.routes());
+
+    public static final BinarySerde<Ticket> TICKET = BinarySerde
+            .oneOf(ChMap.tickets());
+
+    public static final BinarySerde<Station> STATION = BinarySerde
+            .oneOf(ChMap.stations());
+
+    public static final BinarySerde<InfoEvent.Kind> INFO_EVENT_KIND = BinarySerde
+            .oneOf(InfoEvent.Kind.ALL);
+
+    public static final BinarySerde<List<String>> LIST_OF_STRING = BinarySerde
+            .listOf(STRING);
+
+    public static final BinarySerde<List<Card>> LIST_OF_CARD = BinarySerde
+            .listOf(CARD);
+
+    public static final BinarySerde<List<Route>> LIST_OF_ROUTE = BinarySerde
+            .listOf(ROUTE);
+
+    public static final BinarySerde<SortedBag<Card>> BAG_OF_CARD = BinarySerde
+            .bagOf(CARD);
+
+    public static final BinarySerde<SortedBag<Ticket>> BAG_OF_TICKET = BinarySerde
+            .bagOf(TICKET);
+
+    public static final BinarySerde<List<SortedBag<Card>>> LIST_OF_BAG_OF_CARD = BinarySerde
+            .listOf(BAG_OF_CARD);
+
+    public static final BinarySerde<PublicCardState> PUBLIC_CARD_STATE = BinarySerde
+            .of((i, b) -> {
+                LIST_OF_CARD.serialize(i.faceUpCards(), b);
+                INTEGER.serialize(i.deckSize(), b);
+                INTEGER.serialize(i.discardsSize(), b);
+            }, b -> new PublicCardState(LIST_OF_CARD.deserialize(b),
+                    INTEGER.deserialize(b), INTEGER.deserialize(b)));
+
+    public static final BinarySerde<PublicPlayerState> PUBLIC_PLAYER_STATE = BinarySerde
+            .of((i, b) -> {
+                INTEGER.serialize(i.ticketCount(), b);
+                INTEGER.serialize(i.cardCount(), b);
+                LIST_OF_ROUTE.serialize(i.routes(), b);
+            }, b -> new PublicPlayerState(INTEGER.deserialize(b),
+                    INTEGER.deserialize(b), LIST_OF_ROUTE.deserialize(b)));
+
+    public static final BinarySerde<PlayerState> PLAYER_STATE = BinarySerde
+            .of((i, b) -> {
+                BAG_OF_TICKET.serialize(i.tickets(), b);
+                BAG_OF_CARD.serialize(i.cards(), b);
+                LIST_OF_ROUTE.serialize(i.routes(), b);
+            }, b -> new PlayerState(BAG_OF_TICKET.deserialize(b),
+                    BAG_OF_CARD.deserialize(b), LIST_OF_ROUTE.deserialize(b)));
+
+    public static final BinarySerde<PublicGameState> PUBLIC_GAME_STATE = BinarySerde
+            .of((i, b) -> {
+                INTEGER.serialize(i.ticketsCount(), b);
+                PUBLIC_CARD_STATE.serialize(i.cardState(), b);
+                PLAYER_ID.serialize(i.currentPlayerId(), b);
+                PUBLIC_PLAYER_STATE.serialize(i.playerState(PlayerId.PLAYER_1),
+                        b);
+                PUBLIC_PLAYER_STATE.serialize(i.playerState(PlayerId.PLAYER_2),
+                        b);
+                PLAYER_ID.serialize(i.lastPlayer(), b);
+            }, b -> new PublicGameState(INTEGER.deserialize(b),
+                    PUBLIC_CARD_STATE.deserialize(b), PLAYER_ID.deserialize(b),
+                    Map.of(PlayerId.PLAYER_1, PUBLIC_PLAYER_STATE.deserialize(b),
+                            PlayerId.PLAYER_2,
+                            PUBLIC_PLAYER_STATE.deserialize(b)),
+                    PLAYER_ID.deserialize(b)));
+
+    public static final BinarySerde<InfoEvent> INFO_EVENT = BinarySerde
+            .of((i, b) -> {
+                INFO_EVENT_KIND.serialize(i.kind(), b);
+                PLAYER_ID.serialize(i.playerId(), b);
+                INTEGER.serialize(i.count(), b);
+                INTEGER.serialize(i.otherCount(), b);
+                CARD.serialize(i.card(), b);
+                ROUTE.serialize(i.route(), b);
+                BAG_OF_CARD.serialize(i.cards(), b);
+                STATION.serialize(i.station1(), b);
+                STATION.serialize(i.station2(), b);
+            }, b -> new InfoEvent(INFO_EVENT_KIND.deserialize(b),
+                    PLAYER_ID.deserialize(b), INTEGER.deserialize(b),
+                    INTEGER.deserialize(b), CARD.deserialize(b),
+                    ROUTE.deserialize(b), BAG_OF_CARD.deserialize(b),
+                    STATION.deserialize(b), STATION.deserialize(b)));
+
+    private BinarySerdes() {
+
+    }
+
+    /**
+     * Méthode qui écrit l'entier positif ou nul donné en paramètre sur un
+     * nombre variable d'octets (de 1 à 5) dans le tampon "buffer"
+     * 
+     * @param buffer(ByteBuffer)
+     *            le tampon dans lequel écrire
+     * @param value(int)
+     *            l'entier à écrire, interprété comme non signé
+     */
+    static void putVarInt(ByteBuffer buffer, int value) {
+        while ((value & ~VAR_INT_PAYLOAD_MASK) != 0) {
+            buffer.put((byte) ((value & VAR_INT_PAYLOAD_MASK)
+                    | VAR_INT_CONTINUATION_BIT));
+            value >>>= VAR_INT_PAYLOAD_BITS;
+        }
+        buffer.put((byte) value);
+    }
+
+    /**
+     * Méthode qui lit un entier écrit par putVarInt dans le tampon "buffer"
+     * 
+     * @param buffer(ByteBuffer)
+     *            le tampon duquel lire
+     * @return l'entier lu
+     */
+    static int getVarInt(ByteBuffer buffer) {
+        int value = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = buffer.get();
+            value |= (b & VAR_INT_PAYLOAD_MASK) << shift;
+            shift += VAR_INT_PAYLOAD_BITS;
+        } while ((b & VAR_INT_CONTINUATION_BIT) != 0);
+        return value;
+    }
+}
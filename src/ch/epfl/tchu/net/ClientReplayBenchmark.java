@@ -0,0 +1,255 @@
+/*
+ *	Author:      Ahmed Kallala (315594)
+ *	Date:        8 juin 2021
+ */
+
+package ch.epfl.tchu.net;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.Card;
+import ch.epfl.tchu.game.ChMap;
+import ch.epfl.tchu.game.Game;
+import ch.epfl.tchu.game.InfoEvent;
+import ch.epfl.tchu.game.Player;
+import ch.epfl.tchu.game.PlayerId;
+import ch.epfl.tchu.game.PlayerState;
+import ch.epfl.tchu.game.PublicGameState;
+import ch.epfl.tchu.game.RandomPlayer;
+import ch.epfl.tchu.game.Route;
+import ch.epfl.tchu.game.Ticket;
+
+/**
+ * Classe mesurant le débit de décodage du client : pour chaque protocole, elle
+ * enregistre les octets reçus par le client du premier joueur au cours d'une
+ * partie complète entre deux RandomPlayer (jouée sur une connexion locale),
+ * puis rejoue cet enregistrement de nombreuses fois au travers de
+ * RemotePlayerClient et affiche le nombre de messages décodés par seconde
+ * 
+ * Arguments (facultatifs) : nombre de répétitions, graine de la partie
+ * 
+ * @author ahmedkallala
+ *
+ */
+public final class ClientReplayBenchmark {
+    private static final int DEFAULT_REPETITIONS = 10000;
+    private static final long DEFAULT_SEED = 2021;
+    private static final Map<PlayerId, String> PLAYER_NAMES = Map.of(
+            PlayerId.PLAYER_1, "Ada", PlayerId.PLAYER_2, "Charles");
+
+    private ClientReplayBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int repetitions = args.length > 0 ? Integer.parseInt(args[0])
+                : DEFAULT_REPETITIONS;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : DEFAULT_SEED;
+
+        for (Protocol protocol : Protocol.values()) {
+            byte[] log = record(protocol, seed);
+            ReplayPlayer player = new ReplayPlayer();
+            // Échauffement, pour que les mesures portent sur du code compilé
+            replay(log, protocol, player, repetitions / 4);
+            long start = System.nanoTime();
+            long messages = replay(log, protocol, player, repetitions);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf(
+                    "%-6s : %d octets, %d messages par partie ; %.0f messages/s%n",
+                    protocol, log.length, messages / repetitions,
+                    messages / seconds);
+        }
+    }
+
+    // Joue une partie entre deux RandomPlayer distants et retourne les octets
+    // reçus par le client du premier joueur
+    private static byte[] record(Protocol protocol, long seed)
+            throws IOException, InterruptedException {
+        ByteArrayOutputStream log = new ByteArrayOutputStream();
+        try (ServerSocket server = new ServerSocket(0, PlayerId.COUNT,
+                InetAddress.getLoopbackAddress())) {
+            InetSocketAddress address = new InetSocketAddress(
+                    server.getInetAddress(), server.getLocalPort());
+            Thread client1 = startClient(address, protocol,
+                    new Random(seed + 1), log);
+            try (Socket socket1 = server.accept()) {
+                Thread client2 = startClient(address, protocol,
+                        new Random(seed + 2), OutputStream.nullOutputStream());
+                try (Socket socket2 = server.accept()) {
+                    RemotePlayerProxy player1 = new RemotePlayerProxy(socket1,
+                            protocol, true, true);
+                    RemotePlayerProxy player2 = new RemotePlayerProxy(socket2,
+                            protocol, true, true);
+                    Game.play(
+                            Map.of(PlayerId.PLAYER_1, player1,
+                                    PlayerId.PLAYER_2, player2),
+                            PLAYER_NAMES, SortedBag.of(ChMap.tickets()),
+                            new Random(seed), true);
+                    player1.flush();
+                    player2.flush();
+                }
+                client2.join();
+            }
+            client1.join();
+        }
+        return log.toByteArray();
+    }
+
+    private static Thread startClient(InetSocketAddress address,
+            Protocol protocol, Random rng, OutputStream log)
+            throws IOException {
+        SocketChannel channel = SocketChannel.open(address);
+        Thread client = new Thread(() -> {
+            try (channel) {
+                new RemotePlayerClient(new RandomPlayer(rng),
+                        MessageChannel.of(new RecordingChannel(channel, log),
+                                channel, protocol)).run();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        client.start();
+        return client;
+    }
+
+    // Rejoue l'enregistrement le nombre de fois donné et retourne le nombre
+    // total de messages décodés ; les réponses du joueur sont ignorées
+    private static long replay(byte[] log, Protocol protocol,
+            ReplayPlayer player, int repetitions) {
+        WritableByteChannel replies = Channels
+                .newChannel(OutputStream.nullOutputStream());
+        player.messages = 0;
+        for (int i = 0; i < repetitions; ++i) {
+            new RemotePlayerClient(player,
+                    MessageChannel.of(
+                            Channels.newChannel(new ByteArrayInputStream(log)),
+                            replies, protocol)).run();
+        }
+        return player.messages;
+    }
+
+    // Canal qui copie dans "log" tous les octets lus sur "channel"
+    private static final class RecordingChannel implements ReadableByteChannel {
+        private final ReadableByteChannel channel;
+        private final OutputStream log;
+
+        private RecordingChannel(ReadableByteChannel channel,
+                OutputStream log) {
+            this.channel = channel;
+            this.log = log;
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            int start = dst.position();
+            int count = channel.read(dst);
+            if (count > 0) {
+                log.write(dst.array(), dst.arrayOffset() + start, count);
+            }
+            return count;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return channel.isOpen();
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    // Joueur qui compte les messages reçus et répond toujours de la même
+    // manière, les réponses n'étant pas envoyées au mandataire
+    private static final class ReplayPlayer implements Player {
+        private long messages = 0;
+
+        @Override
+        public void initPlayers(PlayerId ownId,
+                Map<PlayerId, String> playerNames) {
+            ++messages;
+        }
+
+        @Override
+        public void receiveInfo(String info) {
+            ++messages;
+        }
+
+        @Override
+        public void receiveInfo(InfoEvent event,
+                Map<PlayerId, String> playerNames) {
+            ++messages;
+        }
+
+        @Override
+        public void updateState(PublicGameState newState,
+                PlayerState ownState) {
+            ++messages;
+        }
+
+        @Override
+        public void setInitialTicketChoice(SortedBag<Ticket> tickets) {
+            ++messages;
+        }
+
+        @Override
+        public SortedBag<Ticket> chooseInitialTickets() {
+            ++messages;
+            return SortedBag.of();
+        }
+
+        @Override
+        public TurnKind nextTurn() {
+            ++messages;
+            return TurnKind.DRAW_CARDS;
+        }
+
+        @Override
+        public SortedBag<Ticket> chooseTickets(SortedBag<Ticket> options) {
+            ++messages;
+            return options;
+        }
+
+        @Override
+        public int drawSlot() {
+            ++messages;
+            return 0;
+        }
+
+        @Override
+        public Route claimedRoute() {
+            ++messages;
+            return ChMap.routes().get(0);
+        }
+
+        @Override
+        public SortedBag<Card> initialClaimCards() {
+            ++messages;
+            return SortedBag.of();
+        }
+
+        @Override
+        public SortedBag<Card> chooseAdditionalCards(
+                List<SortedBag<Card>> options) {
+            ++messages;
+            return SortedBag.of();
+        }
+    }
+}
@@ -0,0 +1,261 @@
+/*
+ *	Author:      Ahmed Kallala (315594)
+ *	Date:        5 juin 2021
+ */
+
+package ch.epfl.tchu.net;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executors;
+
+import ch.epfl.tchu.game.PlayerId;
+
+/**
+ * Classe représentant un serveur sans interface graphique capable d'héberger
+ * un grand nombre de parties simultanées entre joueurs distants ; un unique
+ * fil d'exécution accepte les connexions au moyen d'un sélecteur et les place
+ * dans une salle d'attente, qui forme une partie dès que deux clients y
+ * attendent. Chaque partie est ensuite confiée à un GameSessionExecutor, qui
+ * la joue par l'intermédiaire de deux RemotePlayerProxy, de sorte que les
+ * clients existants (ClientMain) peuvent s'y connecter sans modification.
+ * 
+ * Les spectateurs (SpectatorClient) se connectent sur un port distinct et
+ * suivent la dernière partie commencée, ou la prochaine si aucune n'est en
+ * cours ; leurs envois sont effectués par ce même fil d'exécution
+ * 
+ * Arguments (facultatifs) : numéro de port, protocole (TEXT ou BINARY),
+ * numéro de port des spectateurs
+ * 
+ * @author ahmedkallala
+ *
+ */
+public final class GameServer {
+    /**
+     * Numéro de port indiquant que le serveur n'accepte pas de spectateurs
+     */
+    public static final int NO_SPECTATORS = -1;
+
+    private static final int DEFAULT_PORT = 5108;
+    private static final int DEFAULT_SPECTATOR_PORT = 5110;
+    // Nombre de connexions pouvant attendre d'être acceptées ; la valeur par
+    // défaut (50) est vite dépassée lorsque de nombreux clients se connectent
+    // en même temps
+    private static final int BACKLOG = 1024;
+    // Un joueur humain dispose de cinq minutes par coup et une partie dure
+    // au plus deux heures
+    private static final int DEFAULT_MOVE_TIMEOUT = 5 * 60 * 1000;
+    private static final long DEFAULT_GAME_TIMEOUT = 2 * 60 * 60 * 1000;
+
+    private final int port;
+    private final int spectatorPort;
+    private final Protocol protocol;
+    private final GameSessionExecutor sessions;
+    private final Deque<SocketChannel> lobby = new ArrayDeque<>();
+    private final List<SocketChannel> waitingSpectators = new ArrayList<>();
+    // Seule la dernière partie lancée peut être suivie par un nouveau
+    // spectateur ; les précédentes ne sont référencées que par leur session
+    private SpectatorBroadcast latestBroadcast = null;
+
+    /**
+     * Constructeur de GameServer, qui n'accepte pas de spectateurs
+     * 
+     * @param port(int)
+     *            le numéro du port sur lequel accepter les connexions
+     * @param protocol(Protocol)
+     *            le protocole utilisé pour communiquer, qui doit être celui
+     *            des clients
+     * @param sessions(GameSessionExecutor)
+     *            l'exécuteur sur lequel les parties sont jouées
+     */
+    public GameServer(int port, Protocol protocol,
+            GameSessionExecutor sessions) {
+        this(port, NO_SPECTATORS, protocol, sessions);
+    }
+
+    /**
+     * Constructeur de GameServer
+     * 
+     * @param port(int)
+     *            le numéro du port sur lequel accepter les connexions des
+     *            joueurs
+     * @param spectatorPort(int)
+     *            le numéro du port sur lequel accepter les connexions des
+     *            spectateurs, ou NO_SPECTATORS
+     * @param protocol(Protocol)
+     *            le protocole utilisé pour communiquer, qui doit être celui
+     *            des clients et des spectateurs
+     * @param sessions(GameSessionExecutor)
+     *            l'exécuteur sur lequel les parties sont jouées
+     */
+    public GameServer(int port, int spectatorPort, Protocol protocol,
+            GameSessionExecutor sessions) {
+        this.port = port;
+        this.spectatorPort = spectatorPort;
+        this.protocol = protocol;
+        this.sessions = sessions;
+    }
+
+    public static void main(String[] args) {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        Protocol protocol = args.length > 1 ? Protocol.valueOf(args[1])
+                : Protocol.TEXT;
+        int spectatorPort = args.length > 2 ? Integer.parseInt(args[2])
+                : DEFAULT_SPECTATOR_PORT;
+        new GameServer(port, spectatorPort, protocol,
+                new GameSessionExecutor(Executors.defaultThreadFactory(),
+                        DEFAULT_MOVE_TIMEOUT, DEFAULT_GAME_TIMEOUT)).run();
+    }
+
+    /**
+     * Méthode qui lance le serveur ; elle accepte les connexions et forme les
+     * parties jusqu'à ce que le fil d'exécution courant soit interrompu
+     */
+    public void run() {
+        try (Selector selector = Selector.open();
+                ServerSocketChannel server = ServerSocketChannel.open();
+                ServerSocketChannel spectatorServer = ServerSocketChannel
+                        .open()) {
+            server.bind(new InetSocketAddress(port), BACKLOG);
+            server.configureBlocking(false);
+            server.register(selector, SelectionKey.OP_ACCEPT);
+            if (spectatorPort != NO_SPECTATORS) {
+                spectatorServer.bind(new InetSocketAddress(spectatorPort),
+                        BACKLOG);
+                spectatorServer.configureBlocking(false);
+                spectatorServer.register(selector, SelectionKey.OP_ACCEPT);
+            }
+            while (!Thread.currentThread().isInterrupted()) {
+                selector.select();
+                Iterator<SelectionKey> keys = selector.selectedKeys()
+                        .iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    // La clé d'un spectateur peut être annulée par le fil
+                    // d'exécution de sa partie
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.channel() == spectatorServer) {
+                        acceptSpectators(selector, spectatorServer);
+                    } else if (key.isAcceptable()) {
+                        accept(selector, server);
+                    } else if (key.attachment() != null) {
+                        SpectatorBroadcast.ready(key);
+                    } else if (key.isReadable()) {
+                        leave(key);
+                    }
+                }
+                startGames(selector);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lobby.forEach(GameServer::close);
+            lobby.clear();
+            waitingSpectators.forEach(GameServer::close);
+            waitingSpectators.clear();
+        }
+    }
+
+    private void accept(Selector selector, ServerSocketChannel server)
+            throws IOException {
+        SocketChannel client;
+        while ((client = server.accept()) != null) {
+            client.configureBlocking(false);
+            // Un client n'envoie rien avant d'avoir reçu INIT_PLAYERS : un
+            // client en attente qui devient lisible s'est donc déconnecté
+            client.register(selector, SelectionKey.OP_READ);
+            lobby.addLast(client);
+        }
+    }
+
+    private void acceptSpectators(Selector selector,
+            ServerSocketChannel spectatorServer) throws IOException {
+        if (latestBroadcast != null && latestBroadcast.isClosed()) {
+            latestBroadcast = null;
+        }
+        SocketChannel spectator;
+        while ((spectator = spectatorServer.accept()) != null) {
+            if (latestBroadcast == null) {
+                spectator.configureBlocking(false);
+                spectator.register(selector, SelectionKey.OP_READ);
+                waitingSpectators.add(spectator);
+            } else {
+                latestBroadcast.subscribe(spectator);
+            }
+        }
+    }
+
+    // Un client ou un spectateur en attente devenu lisible s'est déconnecté
+    private void leave(SelectionKey key) {
+        SocketChannel client = (SocketChannel) key.channel();
+        try {
+            if (client.read(ByteBuffer.allocate(1)) != -1) {
+                return;
+            }
+        } catch (IOException e) {
+            // la connexion est inutilisable, le client quitte la salle
+        }
+        key.cancel();
+        lobby.remove(client);
+        waitingSpectators.remove(client);
+        close(client);
+    }
+
+    private void startGames(Selector selector) throws IOException {
+        if (lobby.size() < PlayerId.COUNT) {
+            return;
+        }
+        // Les clés des clients appariés doivent être effectivement retirées
+        // du sélecteur avant de repasser leurs canaux en mode bloquant
+        for (SocketChannel client : lobby) {
+            client.keyFor(selector).cancel();
+        }
+        selector.selectNow();
+        while (lobby.size() >= PlayerId.COUNT) {
+            SocketChannel client1 = lobby.removeFirst();
+            SocketChannel client2 = lobby.removeFirst();
+            client1.configureBlocking(true);
+            client2.configureBlocking(true);
+            if (spectatorPort == NO_SPECTATORS) {
+                sessions.submit(client1.socket(), client2.socket(), protocol);
+            } else {
+                SpectatorBroadcast broadcast = new SpectatorBroadcast(protocol,
+                        selector);
+                sessions.submit(client1.socket(), client2.socket(), protocol,
+                        broadcast);
+                latestBroadcast = broadcast;
+            }
+        }
+        if (latestBroadcast != null) {
+            for (SocketChannel spectator : waitingSpectators) {
+                latestBroadcast.subscribe(spectator);
+            }
+            waitingSpectators.clear();
+        }
+        for (SocketChannel client : lobby) {
+            client.register(selector, SelectionKey.OP_READ);
+        }
+    }
+
+    private static void close(SocketChannel client) {
+        try {
+            client.close();
+        } catch (IOException e) {
+            // la connexion est de toute façon abandonnée
+        }
+    }
+}
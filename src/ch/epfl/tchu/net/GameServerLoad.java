@@ -0,0 +1,110 @@
+/*
+ *	Author:      Ahmed Kallala (315594)
+ *	Date:        6 juin 2021
+ */
+
+package ch.epfl.tchu.net;
+
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import ch.epfl.tchu.game.PlayerId;
+import ch.epfl.tchu.game.RandomPlayer;
+
+/**
+ * Classe exécutant un test de charge du serveur : elle lance un GameServer
+ * puis autant de paires de clients automatiques (RandomPlayer, au travers de
+ * RemotePlayerClient) que de parties demandées, toutes connectées en même
+ * temps, et affiche le débit obtenu ainsi que le nombre maximal de parties
+ * simultanées et de fils d'exécution
+ * 
+ * Arguments (facultatifs) : nombre de parties, protocole (TEXT ou BINARY),
+ * numéro de port
+ * 
+ * @author ahmedkallala
+ *
+ */
+public final class GameServerLoad {
+    private static final int DEFAULT_GAMES_COUNT = 200;
+    private static final int DEFAULT_PORT = 5109;
+    private static final int MOVE_TIMEOUT = 30 * 1000;
+    private static final long GAME_TIMEOUT = 10 * 60 * 1000;
+    private static final int CONNECT_RETRY_DELAY = 50;
+    private static final int SAMPLING_PERIOD = 100;
+
+    private GameServerLoad() {
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int gamesCount = args.length > 0 ? Integer.parseInt(args[0])
+                : DEFAULT_GAMES_COUNT;
+        Protocol protocol = args.length > 1 ? Protocol.valueOf(args[1])
+                : Protocol.TEXT;
+        int port = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_PORT;
+
+        GameSessionExecutor sessions = new GameSessionExecutor(
+                Executors.defaultThreadFactory(), MOVE_TIMEOUT, GAME_TIMEOUT);
+        Thread server = new Thread(
+                () -> new GameServer(port, protocol, sessions).run());
+        server.setDaemon(true);
+        server.start();
+
+        AtomicInteger peakSessions = new AtomicInteger();
+        ScheduledExecutorService sampler = Executors
+                .newSingleThreadScheduledExecutor();
+        sampler.scheduleAtFixedRate(
+                () -> peakSessions.accumulateAndGet(sessions.activeSessions(),
+                        Math::max),
+                0, SAMPLING_PERIOD, TimeUnit.MILLISECONDS);
+
+        long start = System.nanoTime();
+        List<Thread> clients = new ArrayList<>();
+        for (int i = 0; i < gamesCount * PlayerId.COUNT; ++i) {
+            Random rng = new Random(i);
+            Thread client = new Thread(() -> connect(rng, port, protocol));
+            client.start();
+            clients.add(client);
+        }
+        for (Thread client : clients) {
+            client.join();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        sampler.shutdownNow();
+        server.interrupt();
+        sessions.shutdown(true);
+
+        System.out.printf("%d parties en %.2f s (%.1f parties/s)%n",
+                gamesCount, seconds, gamesCount / seconds);
+        System.out.printf(
+                "parties simultanées (max.) : %d ; fils d'exécution (max.) : %d%n",
+                peakSessions.get(),
+                ManagementFactory.getThreadMXBean().getPeakThreadCount());
+        System.out.printf("messages par envoi : %.2f%n",
+                sessions.messagesPerFlush());
+    }
+
+    private static void connect(Random rng, int port, Protocol protocol) {
+        RemotePlayerClient client = null;
+        // Le serveur n'est peut-être pas encore à l'écoute
+        while (client == null) {
+            try {
+                client = new RemotePlayerClient(new RandomPlayer(rng),
+                        "localhost", port, protocol);
+            } catch (UncheckedIOException e) {
+                try {
+                    Thread.sleep(CONNECT_RETRY_DELAY);
+                } catch (InterruptedException e1) {
+                    return;
+                }
+            }
+        }
+        client.run();
+    }
+}
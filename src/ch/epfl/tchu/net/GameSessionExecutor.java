@@ -0,0 +1,266 @@
+/*
+ *	Author:      Ahmed Kallala (315594)
+ *	Date:        6 juin 2021
+ */
+
+package ch.epfl.tchu.net;
+
+import java.io.IOException;
+import java.net.Socket;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import ch.epfl.tchu.Preconditions;
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.ChMap;
+import ch.epfl.tchu.game.Game;
+import ch.epfl.tchu.game.Player;
+import ch.epfl.tchu.game.PlayerId;
+
+/**
+ * Classe représentant un exécuteur de parties entre deux joueurs distants ;
+ * chaque partie est jouée sur son propre fil d'exécution, créé par la fabrique
+ * donnée, et est abandonnée si un joueur met trop de temps à répondre ou si
+ * elle dure trop longtemps. Une partie abandonnée ou annulée libère
+ * immédiatement son fil d'exécution, car ses prises sont fermées
+ * 
+ * @author ahmedkallala
+ *
+ */
+public final class GameSessionExecutor {
+    private static final Map<PlayerId, String> PLAYER_NAMES = Map.of(
+            PlayerId.PLAYER_1, "Ada", PlayerId.PLAYER_2, "Charles");
+
+    private final ExecutorService sessions;
+    private final ScheduledThreadPoolExecutor watchdog = new ScheduledThreadPoolExecutor(
+            1, r -> {
+                Thread t = new Thread(r, "game-session-watchdog");
+                t.setDaemon(true);
+                return t;
+            });
+    private final int moveTimeout;
+    private final long gameTimeout;
+    private final Set<Session> activeSessions = ConcurrentHashMap.newKeySet();
+    private final LongAdder messagesSent = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+
+    /**
+     * Constructeur de GameSessionExecutor
+     * 
+     * @param threadFactory(ThreadFactory)
+     *            la fabrique des fils d'exécution sur lesquels les parties
+     *            sont jouées (un par partie)
+     * @param moveTimeout(int)
+     *            le temps maximal, en millisecondes, d'attente d'un message
+     *            ou d'une réponse d'un joueur (0 pour aucune limite)
+     * @param gameTimeout(long)
+     *            la durée maximale, en millisecondes, d'une partie (0 pour
+     *            aucune limite)
+     * @throws IllegalArgumentException
+     *             si l'une des durées est négative
+     */
+    public GameSessionExecutor(ThreadFactory threadFactory, int moveTimeout,
+            long gameTimeout) {
+        Preconditions.checkArgument(moveTimeout >= 0 && gameTimeout >= 0);
+        this.sessions = Executors.newCachedThreadPool(threadFactory);
+        this.moveTimeout = moveTimeout;
+        this.gameTimeout = gameTimeout;
+        watchdog.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * Méthode qui lance une partie entre les clients connectés aux prises
+     * données ; annuler la partie au moyen du Future retourné ferme les deux
+     * prises
+     * 
+     * @param socket1(Socket)
+     *            la prise connectée au client du premier joueur
+     * @param socket2(Socket)
+     *            la prise connectée au client du second joueur
+     * @param protocol(Protocol)
+     *            le protocole utilisé pour communiquer avec les clients
+     * @return le nombre final de points de chaque joueur, une fois la partie
+     *         terminée ; si elle est abandonnée, Future.get lève une
+     *         ExecutionException dont la cause est une UncheckedIOException
+     * @throws RejectedExecutionException
+     *             si l'exécuteur a été arrêté, les deux prises étant alors
+     *             fermées
+     */
+    public Future<Map<PlayerId, Integer>> submit(Socket socket1,
+            Socket socket2, Protocol protocol) {
+        return submit(new Session(socket1, socket2, protocol, null));
+    }
+
+    /**
+     * Méthode qui lance une partie entre les clients connectés aux prises
+     * données, diffusée aux spectateurs au moyen de "spectators" (terminée en
+     * même temps que la partie)
+     * 
+     * @param socket1(Socket)
+     *            la prise connectée au client du premier joueur
+     * @param socket2(Socket)
+     *            la prise connectée au client du second joueur
+     * @param protocol(Protocol)
+     *            le protocole utilisé pour communiquer avec les clients
+     * @param spectators(SpectatorBroadcast)
+     *            la diffusion de la partie aux spectateurs
+     * @return le nombre final de points de chaque joueur, une fois la partie
+     *         terminée
+     * @throws RejectedExecutionException
+     *             si l'exécuteur a été arrêté, les deux prises et la diffusion
+     *             étant alors fermées
+     */
+    Future<Map<PlayerId, Integer>> submit(Socket socket1, Socket socket2,
+            Protocol protocol, SpectatorBroadcast spectators) {
+        return submit(new Session(socket1, socket2, protocol,
+                Objects.requireNonNull(spectators)));
+    }
+
+    private Future<Map<PlayerId, Integer>> submit(Session session) {
+        activeSessions.add(session);
+        try {
+            if (gameTimeout > 0) {
+                session.timeout = watchdog.schedule(
+                        () -> session.cancel(true), gameTimeout,
+                        TimeUnit.MILLISECONDS);
+            }
+            sessions.execute(session);
+        } catch (RejectedExecutionException e) {
+            // Annuler la partie ferme ses prises et la retire des parties en
+            // cours
+            session.cancel(true);
+            throw e;
+        }
+        return session;
+    }
+
+    /**
+     * Méthode qui retourne le nombre de parties en cours
+     * 
+     * @return le nombre de parties en cours
+     */
+    public int activeSessions() {
+        return activeSessions.size();
+    }
+
+    /**
+     * Méthode qui retourne le nombre moyen de messages regroupés dans un même
+     * envoi sur les prises, pour l'ensemble des parties terminées
+     * 
+     * @return le nombre moyen de messages par envoi, ou 0 si aucun message
+     *         n'a encore été envoyé
+     */
+    public double messagesPerFlush() {
+        long flushCount = flushes.sum();
+        return flushCount == 0 ? 0 : (double) messagesSent.sum() / flushCount;
+    }
+
+    /**
+     * Méthode qui n'accepte plus de nouvelles parties et, si "now" est vrai,
+     * annule toutes celles en cours
+     * 
+     * @param now(boolean)
+     *            vrai si les parties en cours doivent être annulées
+     */
+    public void shutdown(boolean now) {
+        if (now) {
+            sessions.shutdownNow();
+            activeSessions.forEach(session -> session.cancel(true));
+        } else {
+            sessions.shutdown();
+        }
+        watchdog.shutdownNow();
+    }
+
+    private final class Session extends FutureTask<Map<PlayerId, Integer>> {
+        private final Socket socket1;
+        private final Socket socket2;
+        private final SpectatorBroadcast spectators;
+        private volatile ScheduledFuture<?> timeout = null;
+
+        private Session(Socket socket1, Socket socket2, Protocol protocol,
+                SpectatorBroadcast spectators) {
+            super(() -> {
+                socket1.setSoTimeout(moveTimeout);
+                socket2.setSoTimeout(moveTimeout);
+                RemotePlayerProxy player1 = new RemotePlayerProxy(socket1,
+                        protocol, false, true);
+                RemotePlayerProxy player2 = new RemotePlayerProxy(socket2,
+                        protocol, false, true);
+                // L'état public et les informations étant les mêmes pour les
+                // deux joueurs, il suffit d'observer le premier
+                Player observed = spectators == null ? player1
+                        : spectators.observe(player1);
+                try {
+                    Map<PlayerId, Integer> points = Game.play(
+                            Map.of(PlayerId.PLAYER_1, observed,
+                                    PlayerId.PLAYER_2, player2),
+                            PLAYER_NAMES, SortedBag.of(ChMap.tickets()),
+                            new Random(), true);
+                    // Les derniers messages de la partie n'attendent pas de
+                    // réponse et sont donc encore retenus
+                    player1.flush();
+                    player2.flush();
+                    return points;
+                } finally {
+                    messagesSent.add(
+                            player1.messagesSent() + player2.messagesSent());
+                    flushes.add(player1.flushes() + player2.flushes());
+                }
+            });
+            this.socket1 = socket1;
+            this.socket2 = socket2;
+            this.spectators = spectators;
+        }
+
+        // Une lecture bloquante sur une prise n'est pas interrompue par
+        // Thread.interrupt, seule la fermeture de la prise la débloque
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = super.cancel(mayInterruptIfRunning);
+            if (cancelled) {
+                close();
+            }
+            return cancelled;
+        }
+
+        @Override
+        protected void done() {
+            close();
+            if (spectators != null) {
+                spectators.close();
+            }
+            ScheduledFuture<?> timeout = this.timeout;
+            if (timeout != null) {
+                timeout.cancel(false);
+            }
+            activeSessions.remove(this);
+        }
+
+        private void close() {
+            closeQuietly(socket1);
+            closeQuietly(socket2);
+        }
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // la connexion est de toute façon abandonnée
+        }
+    }
+}
@@ -0,0 +1,394 @@
+/*
+ *	Author:      Ahmed Kallala (315594)
+ *	Date:        3 juin 2021
+ */
+
+package ch.epfl.tchu.net;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.StringJoiner;
+
+/**
+ * Classe représentant l'une des extrémités d'une connexion entre le mandataire
+ * et le client d'un joueur distant ; elle permet d'envoyer et de recevoir des
+ * messages (identifiés par un MessageId) et des réponses (sans identifiant),
+ * indépendamment du protocole utilisé
+ * 
+ * @author ahmedkallala
+ *
+ */
+abstract class MessageChannel {
+    /**
+     * Méthode qui retourne l'extrémité de connexion utilisant la prise et le
+     * protocole donnés en paramètre
+     * 
+     * @param socket(Socket)
+     *            la prise utilisée pour communiquer
+     * @param protocol(Protocol)
+     *            le protocole utilisé
+     * @return l'extrémité de connexion correspondante
+     */
+    static MessageChannel of(Socket socket, Protocol protocol) {
+        try {
+            switch (protocol) {
+            case BINARY:
+                return new Binary(Channels.newChannel(socket.getInputStream()),
+                        Channels.newChannel(socket.getOutputStream()));
+            default:
+                return new Text(socket.getInputStream(),
+                        socket.getOutputStream());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Méthode qui retourne l'extrémité de connexion utilisant le canal de
+     * prise (en mode bloquant) et le protocole donnés en paramètre ; les
+     * octets reçus y sont lus directement depuis le canal, mais le délai
+     * d'attente de la prise sous-jacente (Socket.setSoTimeout) n'est pas
+     * respecté
+     * 
+     * @param channel(SocketChannel)
+     *            le canal de prise utilisé pour communiquer
+     * @param protocol(Protocol)
+     *            le protocole utilisé
+     * @return l'extrémité de connexion correspondante
+     */
+    static MessageChannel of(SocketChannel channel, Protocol protocol) {
+        return of(channel, channel, protocol);
+    }
+
+    /**
+     * Méthode qui retourne l'extrémité de connexion lisant et écrivant sur les
+     * canaux donnés, au moyen du protocole donné
+     * 
+     * @param in(ReadableByteChannel)
+     *            le canal sur lequel les messages et réponses sont reçus
+     * @param out(WritableByteChannel)
+     *            le canal sur lequel les messages et réponses sont envoyés
+     * @param protocol(Protocol)
+     *            le protocole utilisé
+     * @return l'extrémité de connexion correspondante
+     */
+    static MessageChannel of(ReadableByteChannel in, WritableByteChannel out,
+            Protocol protocol) {
+        switch (protocol) {
+        case BINARY:
+            return new Binary(in, out);
+        default:
+            return new Text(Channels.newInputStream(in),
+                    Channels.newOutputStream(out));
+        }
+    }
+
+    /**
+     * Méthode qui commence la construction d'un message d'identité "id"
+     * 
+     * @param id(MessageId)
+     *            l'identité du message
+     */
+    abstract void startMessage(MessageId id);
+
+    /**
+     * Méthode qui commence la construction d'une réponse
+     */
+    abstract void startReply();
+
+    /**
+     * Méthode qui ajoute un argument au message ou à la réponse en cours de
+     * construction, sérialisé au moyen du serde correspondant au protocole
+     * 
+     * @param serde(Serde<E>)
+     *            le serde textuel de l'argument
+     * @param binarySerde(BinarySerde<E>)
+     *            le serde binaire de l'argument
+     * @param value
+     *            l'argument
+     */
+    abstract <E> void write(Serde<E> serde, BinarySerde<E> binarySerde,
+            E value);
+
+    /**
+     * Méthode qui termine le message ou la réponse en cours de construction et
+     * l'ajoute aux données à envoyer ; celles-ci ne sont réellement envoyées
+     * qu'au prochain appel à flush
+     */
+    abstract void send();
+
+    /**
+     * Méthode qui envoie tous les messages et réponses terminés par send et
+     * pas encore envoyés
+     */
+    abstract void flush();
+
+    /**
+     * Méthode qui attend le prochain message et retourne son identité ; ses
+     * arguments peuvent ensuite être lus par read
+     * 
+     * @return l'identité du message reçu, ou null si la connexion a été fermée
+     */
+    abstract MessageId receiveMessage();
+
+    /**
+     * Méthode qui attend la prochaine réponse ; ses arguments peuvent ensuite
+     * être lus par read
+     */
+    abstract void receiveReply();
+
+    /**
+     * Méthode qui lit l'argument suivant du dernier message ou de la dernière
+     * réponse reçu
+     * 
+     * @param serde(Serde<E>)
+     *            le serde textuel de l'argument
+     * @param binarySerde(BinarySerde<E>)
+     *            le serde binaire de l'argument
+     * @return l'argument désérialisé
+     */
+    abstract <E> E read(Serde<E> serde, BinarySerde<E> binarySerde);
+
+    // Les arguments sont désérialisés directement depuis la ligne reçue, sans
+    // la découper en sous-chaînes
+    private static final class Text extends MessageChannel {
+        private static final char SEPARATOR = ' ';
+
+        private final BufferedReader r;
+        private final BufferedWriter w;
+        private StringJoiner message = null;
+        private String line = null;
+        private int nextArgument = 0;
+
+        private Text(InputStream in, OutputStream out) {
+            r = new BufferedReader(
+                    new InputStreamReader(in, StandardCharsets.US_ASCII));
+            w = new BufferedWriter(
+                    new OutputStreamWriter(out, StandardCharsets.US_ASCII));
+        }
+
+        @Override
+        void startMessage(MessageId id) {
+            message = new StringJoiner(String.valueOf(SEPARATOR));
+            message.add(id.name());
+        }
+
+        @Override
+        void startReply() {
+            message = new StringJoiner(String.valueOf(SEPARATOR));
+        }
+
+        @Override
+        <E> void write(Serde<E> serde, BinarySerde<E> binarySerde, E value) {
+            message.add(serde.serialize(value));
+        }
+
+        @Override
+        void send() {
+            try {
+                w.write(message.toString());
+                w.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        void flush() {
+            try {
+                w.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        MessageId receiveMessage() {
+            line = readLine();
+            if (line == null) {
+                return null;
+            }
+            int idEnd = Serde.indexOf(line, SEPARATOR, 0, line.length());
+            nextArgument = idEnd + 1;
+            return MessageId.valueOf(line.substring(0, idEnd));
+        }
+
+        @Override
+        void receiveReply() {
+            line = readLine();
+            if (line == null) {
+                throw new UncheckedIOException(new EOFException());
+            }
+            nextArgument = 0;
+        }
+
+        @Override
+        <E> E read(Serde<E> serde, BinarySerde<E> binarySerde) {
+            int end = Serde.indexOf(line, SEPARATOR, nextArgument,
+                    line.length());
+            E argument = serde.deserialize(line, nextArgument, end);
+            nextArgument = end + 1;
+            return argument;
+        }
+
+        private String readLine() {
+            try {
+                return r.readLine();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    // Chaque trame est formée de sa longueur (encodée comme un entier de
+    // taille variable) suivie de son contenu ; le premier octet du contenu
+    // d'un message est l'index de son identité dans MessageId. Les octets
+    // reçus sont lus directement dans un tampon réutilisé, dans lequel les
+    // arguments sont ensuite désérialisés sans être copiés
+    private static final class Binary extends MessageChannel {
+        private static final int MAX_FRAME_SIZE = 1 << 16;
+        private static final int MAX_LENGTH_SIZE = 5;
+        private static final MessageId[] MESSAGE_IDS = MessageId.values();
+
+        private final ReadableByteChannel in;
+        private final WritableByteChannel out;
+        private final ByteBuffer frameBuffer = ByteBuffer
+                .allocate(MAX_FRAME_SIZE);
+        private final ByteBuffer outBuffer = ByteBuffer
+                .allocate(MAX_FRAME_SIZE + MAX_LENGTH_SIZE);
+        // Les octets reçus mais pas encore lus se trouvent entre readPosition
+        // et la position de inBuffer ; frame est une vue sur la trame courante
+        private final ByteBuffer inBuffer = ByteBuffer
+                .allocate(MAX_FRAME_SIZE + MAX_LENGTH_SIZE);
+        private final ByteBuffer frame = inBuffer.duplicate();
+        private int readPosition = 0;
+
+        private Binary(ReadableByteChannel in, WritableByteChannel out) {
+            this.in = in;
+            this.out = out;
+        }
+
+        @Override
+        void startMessage(MessageId id) {
+            frameBuffer.clear();
+            frameBuffer.put((byte) id.ordinal());
+        }
+
+        @Override
+        void startReply() {
+            frameBuffer.clear();
+        }
+
+        @Override
+        <E> void write(Serde<E> serde, BinarySerde<E> binarySerde, E value) {
+            binarySerde.serialize(value, frameBuffer);
+        }
+
+        @Override
+        void send() {
+            if (outBuffer.remaining() < MAX_LENGTH_SIZE
+                    + frameBuffer.position()) {
+                flush();
+            }
+            BinarySerdes.putVarInt(outBuffer, frameBuffer.position());
+            outBuffer.put(frameBuffer.flip());
+        }
+
+        @Override
+        void flush() {
+            try {
+                outBuffer.flip();
+                while (outBuffer.hasRemaining()) {
+                    out.write(outBuffer);
+                }
+                outBuffer.clear();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        MessageId receiveMessage() {
+            if (!receiveFrame()) {
+                return null;
+            }
+            return MESSAGE_IDS[Byte.toUnsignedInt(frame.get())];
+        }
+
+        @Override
+        void receiveReply() {
+            if (!receiveFrame()) {
+                throw new UncheckedIOException(new EOFException());
+            }
+        }
+
+        @Override
+        <E> E read(Serde<E> serde, BinarySerde<E> binarySerde) {
+            return binarySerde.deserialize(frame);
+        }
+
+        private boolean receiveFrame() {
+            try {
+                int lengthSize = 0;
+                do {
+                    if (!fill(lengthSize + 1)) {
+                        if (lengthSize == 0
+                                && inBuffer.position() == readPosition) {
+                            return false;
+                        }
+                        throw new EOFException();
+                    }
+                    ++lengthSize;
+                } while ((inBuffer.get(readPosition + lengthSize - 1)
+                        & BinarySerdes.VAR_INT_CONTINUATION_BIT) != 0
+                        && lengthSize < MAX_LENGTH_SIZE);
+                frame.limit(inBuffer.position()).position(readPosition);
+                int length = BinarySerdes.getVarInt(frame);
+                if (length > MAX_FRAME_SIZE) {
+                    throw new IOException("frame too long: " + length);
+                }
+                readPosition = frame.position();
+                if (!fill(length)) {
+                    throw new EOFException();
+                }
+                frame.limit(readPosition + length).position(readPosition);
+                readPosition += length;
+                return true;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        // Lit depuis le canal jusqu'à ce qu'au moins "count" octets non lus
+        // soient disponibles, en ramenant d'abord ces derniers au début du
+        // tampon si la place manque ; retourne faux si le canal est fermé avant
+        private boolean fill(int count) throws IOException {
+            while (inBuffer.position() - readPosition < count) {
+                if (inBuffer.capacity() - readPosition < count) {
+                    inBuffer.flip().position(readPosition);
+                    inBuffer.compact();
+                    readPosition = 0;
+                }
+                if (in.read(inBuffer) == -1) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -10,5 +10,5 @@ package ch.epfl.tchu.net;
  * aux clients
  */
 public enum MessageId {
-    INIT_PLAYERS, RECEIVE_INFO, UPDATE_STATE, SET_INITIAL_TICKETS, CHOOSE_INITIAL_TICKETS, NEXT_TURN, CHOOSE_TICKETS, DRAW_SLOT, ROUTE, CARDS, CHOOSE_ADDITIONAL_CARDS;
+    INIT_PLAYERS, RECEIVE_INFO, UPDATE_STATE, SET_INITIAL_TICKETS, CHOOSE_INITIAL_TICKETS, NEXT_TURN, CHOOSE_TICKETS, DRAW_SLOT, ROUTE, CARDS, CHOOSE_ADDITIONAL_CARDS, UPDATE_STATE_DELTA, RECEIVE_INFO_EVENT, SPECTATE_INIT, SPECTATE_STATE, SPECTATE_STATE_DELTA;
 }
@@ -0,0 +1,17 @@
+/*
+ *	Author:      Ahmed Kallala (315594)
+ *	Date:        3 juin 2021
+ */
+
+package ch.epfl.tchu.net;
+
+/**
+ * Enumération représentant les protocoles que le mandataire et le client d'un
+ * joueur distant peuvent utiliser pour communiquer ; les deux extrémités d'une
+ * connexion doivent utiliser le même
+ */
+public enum Protocol {
+    TEXT, // messages textuels, un par ligne, sérialisés au moyen de Serdes
+    BINARY; // trames binaires préfixées par leur longueur, sérialisées au
+            // moyen de BinarySerdes
+}
@@ -5,23 +5,21 @@
 
 package ch.epfl.tchu.net;
 
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.OutputStreamWriter;
 import java.io.UncheckedIOException;
-import java.net.Socket;
-import java.nio.charset.StandardCharsets;
+import java.net.InetSocketAddress;
+import java.nio.channels.SocketChannel;
 import java.util.List;
 import java.util.Map;
-import java.util.regex.Pattern;
 
 import ch.epfl.tchu.SortedBag;
 import ch.epfl.tchu.game.Card;
+import ch.epfl.tchu.game.InfoEvent;
 import ch.epfl.tchu.game.Player;
 import ch.epfl.tchu.game.Player.TurnKind;
 import ch.epfl.tchu.game.PlayerId;
+import ch.epfl.tchu.game.PlayerState;
+import ch.epfl.tchu.game.PublicGameState;
 import ch.epfl.tchu.game.Route;
 import ch.epfl.tchu.game.Ticket;
 
@@ -33,10 +31,11 @@ import ch.epfl.tchu.game.Ticket;
  */
 public final class RemotePlayerClient {
     private final Player player;
-    private final Socket socket;
+    private final MessageChannel channel;
 
     /**
-     * Constructeur de RemotePlayerClient
+     * Constructeur de RemotePlayerClient, qui communique avec le mandataire au
+     * moyen du protocole textuel
      * 
      * @param player(Player)
      *            le joueur auquel le client courant fourni un accès distant
@@ -46,102 +45,147 @@ public final class RemotePlayerClient {
      *            le numéro du port pour se connecter au mandataire
      */
     public RemotePlayerClient(Player player, String name, int port) {
+        this(player, name, port, Protocol.TEXT);
+    }
+
+    /**
+     * Constructeur de RemotePlayerClient
+     * 
+     * @param player(Player)
+     *            le joueur auquel le client courant fourni un accès distant
+     * @param name(String)
+     *            le nom utilisé pour se connecter au mandataire
+     * @param port(int)
+     *            le numéro du port pour se connecter au mandataire
+     * @param protocol(Protocol)
+     *            le protocole utilisé pour communiquer, qui doit être celui du
+     *            mandataire
+     */
+    public RemotePlayerClient(Player player, String name, int port,
+            Protocol protocol) {
         this.player = player;
         try {
-            socket = new Socket(name, port);
+            this.channel = MessageChannel.of(
+                    SocketChannel.open(new InetSocketAddress(name, port)),
+                    protocol);
         } catch (IOException e) {
             throw new UncheckedIOException(e);
         }
     }
 
+    /**
+     * Constructeur de RemotePlayerClient, qui communique avec le mandataire au
+     * moyen de l'extrémité de connexion donnée (utilisé notamment pour
+     * rejouer une partie enregistrée)
+     * 
+     * @param player(Player)
+     *            le joueur auquel le client courant fourni un accès distant
+     * @param channel(MessageChannel)
+     *            l'extrémité de connexion reliée au mandataire
+     */
+    RemotePlayerClient(Player player, MessageChannel channel) {
+        this.player = player;
+        this.channel = channel;
+    }
+
     /**
      * Méthode qui lance le client, elle reçoit un messages du mandataire
      * correspondant à une méthode du joueur et si la méthode en question
      * retourne un résultat, ce dernier est sérialisé et envoyé au mandataire
      */
     public void run() {
-
-        try {
-            BufferedReader r = new BufferedReader(new InputStreamReader(
-                    socket.getInputStream(), StandardCharsets.US_ASCII));
-            BufferedWriter w = new BufferedWriter(new OutputStreamWriter(
-                    socket.getOutputStream(), StandardCharsets.US_ASCII));
-            String s;
-            while ((s = r.readLine()) != null) {
-                String[] message = s.split(Pattern.quote(String.valueOf(" ")));
-                switch (MessageId.valueOf(message[0])) {
-                case INIT_PLAYERS:
-                    List<String> names = Serdes.LIST_OF_STRING
-                            .deserialize(message[2]);
-                    player.initPlayers(Serdes.PLAYER_ID.deserialize(message[1]),
-                            Map.of(PlayerId.PLAYER_1, names.get(0),
-                                    PlayerId.PLAYER_2, names.get(1)));
-                    break;
-                case RECEIVE_INFO:
-                    player.receiveInfo(Serdes.STRING.deserialize(message[1]));
-                    break;
-                case UPDATE_STATE:
-                    player.updateState(
-                            Serdes.PUBLIC_GAME_STATE.deserialize(message[1]),
-                            Serdes.PLAYER_STATE.deserialize(message[2]));
-                    break;
-                case SET_INITIAL_TICKETS:
-                    player.setInitialTicketChoice(
-                            Serdes.BAG_OF_TICKET.deserialize(message[1]));
-                    break;
-                case CHOOSE_INITIAL_TICKETS:
-                    SortedBag<Ticket> chosenInitialTickets = player
-                            .chooseInitialTickets();
-                    w.write(Serdes.BAG_OF_TICKET
-                            .serialize(chosenInitialTickets));
-                    w.write('\n');
-                    w.flush();
-                    break;
-                case NEXT_TURN:
-                    TurnKind nextTurn = player.nextTurn();
-                    w.write(Serdes.TURN_KIND.serialize(nextTurn));
-                    w.write('\n');
-                    w.flush();
-                    break;
-                case CHOOSE_TICKETS:
-                    SortedBag<Ticket> chosenTickets = player.chooseTickets(
-                            Serdes.BAG_OF_TICKET.deserialize(message[1]));
-                    w.write(Serdes.BAG_OF_TICKET.serialize(chosenTickets));
-                    w.write('\n');
-                    w.flush();
-                    break;
-                case DRAW_SLOT:
-                    int drawSlot = player.drawSlot();
-                    w.write(Serdes.INTEGER.serialize(drawSlot));
-                    w.write('\n');
-                    w.flush();
-                    break;
-                case ROUTE:
-                    Route claimedRoute = player.claimedRoute();
-                    w.write(Serdes.ROUTE.serialize(claimedRoute));
-                    w.write('\n');
-                    w.flush();
-                    break;
-                case CARDS:
-                    SortedBag<Card> claimCards = player.initialClaimCards();
-                    w.write(Serdes.BAG_OF_CARD.serialize(claimCards));
-                    w.write('\n');
-                    w.flush();
-                    break;
-                case CHOOSE_ADDITIONAL_CARDS:
-                    SortedBag<Card> chosenAdditionalCards = player
-                            .chooseAdditionalCards(Serdes.LIST_OF_BAG_OF_CARD
-                                    .deserialize(message[1]));
-                    w.write(Serdes.BAG_OF_CARD
-                            .serialize(chosenAdditionalCards));
-                    w.write('\n');
-                    w.flush();
-                    break;
-                }
-
+        // Derniers états reçus, à partir desquels les deltas sont appliqués
+        PlayerId ownId = null;
+        Map<PlayerId, String> playerNames = null;
+        PublicGameState lastState = null;
+        PlayerState lastOwnState = null;
+        MessageId id;
+        while ((id = channel.receiveMessage()) != null) {
+            switch (id) {
+            case INIT_PLAYERS:
+                ownId = channel.read(Serdes.PLAYER_ID,
+                        BinarySerdes.PLAYER_ID);
+                List<String> names = channel.read(Serdes.LIST_OF_STRING,
+                        BinarySerdes.LIST_OF_STRING);
+                playerNames = Map.of(PlayerId.PLAYER_1, names.get(0),
+                        PlayerId.PLAYER_2, names.get(1));
+                player.initPlayers(ownId, playerNames);
+                break;
+            case RECEIVE_INFO:
+                player.receiveInfo(
+                        channel.read(Serdes.STRING, BinarySerdes.STRING));
+                break;
+            case RECEIVE_INFO_EVENT:
+                player.receiveInfo(channel.read(Serdes.INFO_EVENT,
+                        BinarySerdes.INFO_EVENT), playerNames);
+                break;
+            case UPDATE_STATE:
+                lastState = channel.read(Serdes.PUBLIC_GAME_STATE,
+                        BinarySerdes.PUBLIC_GAME_STATE);
+                lastOwnState = channel.read(Serdes.PLAYER_STATE,
+                        BinarySerdes.PLAYER_STATE);
+                player.updateState(lastState, lastOwnState);
+                break;
+            case UPDATE_STATE_DELTA:
+                int changes = channel.read(Serdes.INTEGER,
+                        BinarySerdes.INTEGER);
+                lastState = StateDelta.readState(channel, changes, lastState);
+                lastOwnState = StateDelta.readOwnState(channel, changes,
+                        lastOwnState, lastState.playerState(ownId).routes());
+                player.updateState(lastState, lastOwnState);
+                break;
+            case SET_INITIAL_TICKETS:
+                player.setInitialTicketChoice(channel.read(
+                        Serdes.BAG_OF_TICKET, BinarySerdes.BAG_OF_TICKET));
+                break;
+            case CHOOSE_INITIAL_TICKETS:
+                SortedBag<Ticket> chosenInitialTickets = player
+                        .chooseInitialTickets();
+                reply(channel, Serdes.BAG_OF_TICKET,
+                        BinarySerdes.BAG_OF_TICKET, chosenInitialTickets);
+                break;
+            case NEXT_TURN:
+                TurnKind nextTurn = player.nextTurn();
+                reply(channel, Serdes.TURN_KIND, BinarySerdes.TURN_KIND,
+                        nextTurn);
+                break;
+            case CHOOSE_TICKETS:
+                SortedBag<Ticket> chosenTickets = player.chooseTickets(
+                        channel.read(Serdes.BAG_OF_TICKET,
+                                BinarySerdes.BAG_OF_TICKET));
+                reply(channel, Serdes.BAG_OF_TICKET,
+                        BinarySerdes.BAG_OF_TICKET, chosenTickets);
+                break;
+            case DRAW_SLOT:
+                int drawSlot = player.drawSlot();
+                reply(channel, Serdes.INTEGER, BinarySerdes.INTEGER, drawSlot);
+                break;
+            case ROUTE:
+                Route claimedRoute = player.claimedRoute();
+                reply(channel, Serdes.ROUTE, BinarySerdes.ROUTE, claimedRoute);
+                break;
+            case CARDS:
+                SortedBag<Card> claimCards = player.initialClaimCards();
+                reply(channel, Serdes.BAG_OF_CARD, BinarySerdes.BAG_OF_CARD,
+                        claimCards);
+                break;
+            case CHOOSE_ADDITIONAL_CARDS:
+                SortedBag<Card> chosenAdditionalCards = player
+                        .chooseAdditionalCards(
+                                channel.read(Serdes.LIST_OF_BAG_OF_CARD,
+                                        BinarySerdes.LIST_OF_BAG_OF_CARD));
+                reply(channel, Serdes.BAG_OF_CARD, BinarySerdes.BAG_OF_CARD,
+                        chosenAdditionalCards);
+                break;
             }
-        } catch (IOException e) {
-            throw new UncheckedIOException(e);
         }
     }
+
+    private static <E> void reply(MessageChannel channel, Serde<E> serde,
+            BinarySerde<E> binarySerde, E value) {
+        channel.startReply();
+        channel.write(serde, binarySerde, value);
+        channel.send();
+        channel.flush();
+    }
 }
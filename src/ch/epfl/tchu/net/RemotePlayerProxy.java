@@ -5,19 +5,13 @@
 
 package ch.epfl.tchu.net;
 
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
-import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.OutputStreamWriter;
-import java.io.UncheckedIOException;
 import java.net.Socket;
-import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
 
 import ch.epfl.tchu.SortedBag;
 import ch.epfl.tchu.game.Card;
+import ch.epfl.tchu.game.InfoEvent;
 import ch.epfl.tchu.game.Player;
 import ch.epfl.tchu.game.PlayerId;
 import ch.epfl.tchu.game.PlayerState;
@@ -32,136 +26,250 @@ import ch.epfl.tchu.game.Ticket;
  *
  */
 public final class RemotePlayerProxy implements Player {
-    private final BufferedReader r;
-    private final BufferedWriter w;
+    // Nombre maximal de deltas envoyés à la suite avant un état complet
+    private static final int KEYFRAME_INTERVAL = 32;
+
+    private final MessageChannel channel;
+    private final boolean deltaUpdates;
+    private final boolean coalesceWrites;
+    private PlayerId ownId = null;
+    private PublicGameState lastState = null;
+    private PlayerState lastOwnState = null;
+    private int updatesSinceKeyframe = 0;
+    private int pendingMessages = 0;
+    private long messagesSent = 0;
+    private long flushes = 0;
 
     /**
-     * Constructeur de RemotePlayerProxy
+     * Constructeur de RemotePlayerProxy, qui communique avec le client au
+     * moyen du protocole textuel
      * 
      * @param socket(Socket)
      *            la prise utilisée pour communiquer à travers le réseau avec le
      *            client
      */
     public RemotePlayerProxy(Socket socket) {
-        try {
-            r = new BufferedReader(new InputStreamReader(
-                    socket.getInputStream(), StandardCharsets.US_ASCII));
-            w = new BufferedWriter(new OutputStreamWriter(
-                    socket.getOutputStream(), StandardCharsets.US_ASCII));
-        } catch (IOException e) {
-            throw new UncheckedIOException(e);
+        this(socket, Protocol.TEXT);
+    }
+
+    /**
+     * Constructeur de RemotePlayerProxy
+     * 
+     * @param socket(Socket)
+     *            la prise utilisée pour communiquer à travers le réseau avec le
+     *            client
+     * @param protocol(Protocol)
+     *            le protocole utilisé pour communiquer, qui doit être celui du
+     *            client
+     */
+    public RemotePlayerProxy(Socket socket, Protocol protocol) {
+        this(socket, protocol, false);
+    }
+
+    /**
+     * Constructeur de RemotePlayerProxy
+     * 
+     * @param socket(Socket)
+     *            la prise utilisée pour communiquer à travers le réseau avec le
+     *            client
+     * @param protocol(Protocol)
+     *            le protocole utilisé pour communiquer, qui doit être celui du
+     *            client
+     * @param deltaUpdates(boolean)
+     *            vrai si les états doivent être envoyés, lorsque c'est
+     *            possible, comme la différence avec l'état envoyé
+     *            précédemment (message UPDATE_STATE_DELTA), un état complet
+     *            étant tout de même envoyé régulièrement
+     */
+    public RemotePlayerProxy(Socket socket, Protocol protocol,
+            boolean deltaUpdates) {
+        this(socket, protocol, deltaUpdates, false);
+    }
+
+    /**
+     * Constructeur de RemotePlayerProxy
+     * 
+     * @param socket(Socket)
+     *            la prise utilisée pour communiquer à travers le réseau avec le
+     *            client
+     * @param protocol(Protocol)
+     *            le protocole utilisé pour communiquer, qui doit être celui du
+     *            client
+     * @param deltaUpdates(boolean)
+     *            vrai si les états doivent être envoyés, lorsque c'est
+     *            possible, comme la différence avec l'état envoyé
+     *            précédemment (message UPDATE_STATE_DELTA)
+     * @param coalesceWrites(boolean)
+     *            vrai si les messages n'attendant pas de réponse
+     *            (INIT_PLAYERS, RECEIVE_INFO, UPDATE_STATE,
+     *            SET_INITIAL_TICKETS) doivent être retenus et envoyés en une
+     *            fois avec le message suivant qui en attend une ; flush doit
+     *            alors être appelée à la fin de la partie
+     */
+    public RemotePlayerProxy(Socket socket, Protocol protocol,
+            boolean deltaUpdates, boolean coalesceWrites) {
+        channel = MessageChannel.of(socket, protocol);
+        this.deltaUpdates = deltaUpdates;
+        this.coalesceWrites = coalesceWrites;
+    }
+
+    /**
+     * Méthode qui envoie immédiatement les messages retenus, s'il y en a
+     */
+    public void flush() {
+        if (pendingMessages > 0) {
+            channel.flush();
+            pendingMessages = 0;
+            ++flushes;
         }
     }
 
+    /**
+     * Méthode qui retourne le nombre de messages envoyés au client
+     * 
+     * @return le nombre de messages envoyés
+     */
+    public long messagesSent() {
+        return messagesSent;
+    }
+
+    /**
+     * Méthode qui retourne le nombre d'envois effectifs sur la prise, chacun
+     * pouvant regrouper plusieurs messages
+     * 
+     * @return le nombre d'envois effectifs
+     */
+    public long flushes() {
+        return flushes;
+    }
+
     @Override
     public void initPlayers(PlayerId ownId, Map<PlayerId, String> playerNames) {
-        String serialized = Serdes.PLAYER_ID.serialize(ownId) + " "
-                + Serdes.LIST_OF_STRING
-                        .serialize(List.copyOf(playerNames.values()));
-        sendMessage(MessageId.INIT_PLAYERS, serialized);
+        this.ownId = ownId;
+        channel.startMessage(MessageId.INIT_PLAYERS);
+        channel.write(Serdes.PLAYER_ID, BinarySerdes.PLAYER_ID, ownId);
+        channel.write(Serdes.LIST_OF_STRING, BinarySerdes.LIST_OF_STRING,
+                List.of(playerNames.get(PlayerId.PLAYER_1),
+                        playerNames.get(PlayerId.PLAYER_2)));
+        send(false);
     }
 
     @Override
     public void receiveInfo(String info) {
-        String serialized = Serdes.STRING.serialize(info);
-        sendMessage(MessageId.RECEIVE_INFO, serialized);
+        channel.startMessage(MessageId.RECEIVE_INFO);
+        channel.write(Serdes.STRING, BinarySerdes.STRING, info);
+        send(false);
+    }
+
+    @Override
+    public void receiveInfo(InfoEvent event,
+            Map<PlayerId, String> playerNames) {
+        // Les noms des joueurs sont déjà connus du client (INIT_PLAYERS), qui
+        // construit lui-même le message
+        channel.startMessage(MessageId.RECEIVE_INFO_EVENT);
+        channel.write(Serdes.INFO_EVENT, BinarySerdes.INFO_EVENT, event);
+        send(false);
     }
 
     @Override
     public void updateState(PublicGameState newState, PlayerState ownState) {
-        String serialized = Serdes.PUBLIC_GAME_STATE.serialize(newState) + " "
-                + Serdes.PLAYER_STATE.serialize(ownState);
-        sendMessage(MessageId.UPDATE_STATE, serialized);
+        int changes = deltaUpdates && lastState != null && ownId != null
+                && updatesSinceKeyframe < KEYFRAME_INTERVAL
+                        ? StateDelta.changes(ownId, lastState, lastOwnState,
+                                newState, ownState)
+                        : StateDelta.NOT_ENCODABLE;
+        if (changes == StateDelta.NOT_ENCODABLE) {
+            channel.startMessage(MessageId.UPDATE_STATE);
+            channel.write(Serdes.PUBLIC_GAME_STATE,
+                    BinarySerdes.PUBLIC_GAME_STATE, newState);
+            channel.write(Serdes.PLAYER_STATE, BinarySerdes.PLAYER_STATE,
+                    ownState);
+            updatesSinceKeyframe = 0;
+        } else {
+            channel.startMessage(MessageId.UPDATE_STATE_DELTA);
+            StateDelta.write(channel, changes, lastState, lastOwnState,
+                    newState, ownState);
+            ++updatesSinceKeyframe;
+        }
+        send(false);
+        lastState = newState;
+        lastOwnState = ownState;
     }
 
     @Override
     public void setInitialTicketChoice(SortedBag<Ticket> tickets) {
-        String serialized = Serdes.BAG_OF_TICKET.serialize(tickets);
-        sendMessage(MessageId.SET_INITIAL_TICKETS, serialized);
+        channel.startMessage(MessageId.SET_INITIAL_TICKETS);
+        channel.write(Serdes.BAG_OF_TICKET, BinarySerdes.BAG_OF_TICKET,
+                tickets);
+        send(false);
     }
 
     @Override
     public SortedBag<Ticket> chooseInitialTickets() {
-        sendMessage(MessageId.CHOOSE_INITIAL_TICKETS, "");
-        try {
-            return Serdes.BAG_OF_TICKET.deserialize(r.readLine());
-        } catch (IOException e) {
-            throw new UncheckedIOException(e);
-        }
+        channel.startMessage(MessageId.CHOOSE_INITIAL_TICKETS);
+        send(true);
+        return reply(Serdes.BAG_OF_TICKET, BinarySerdes.BAG_OF_TICKET);
     }
 
     @Override
     public TurnKind nextTurn() {
-        sendMessage(MessageId.NEXT_TURN, "");
-        try {
-            return Serdes.TURN_KIND.deserialize(r.readLine());
-        } catch (IOException e) {
-            throw new UncheckedIOException(e);
-        }
+        channel.startMessage(MessageId.NEXT_TURN);
+        send(true);
+        return reply(Serdes.TURN_KIND, BinarySerdes.TURN_KIND);
     }
 
     @Override
     public SortedBag<Ticket> chooseTickets(SortedBag<Ticket> options) {
-        String serialized = Serdes.BAG_OF_TICKET.serialize(options);
-        sendMessage(MessageId.CHOOSE_TICKETS, serialized);
-        try {
-            return Serdes.BAG_OF_TICKET.deserialize(r.readLine());
-        } catch (IOException e) {
-            throw new UncheckedIOException(e);
-        }
+        channel.startMessage(MessageId.CHOOSE_TICKETS);
+        channel.write(Serdes.BAG_OF_TICKET, BinarySerdes.BAG_OF_TICKET,
+                options);
+        send(true);
+        return reply(Serdes.BAG_OF_TICKET, BinarySerdes.BAG_OF_TICKET);
     }
 
     @Override
     public int drawSlot() {
-        sendMessage(MessageId.DRAW_SLOT, "");
-        try {
-            return Serdes.INTEGER.deserialize(r.readLine());
-        } catch (IOException e) {
-            throw new UncheckedIOException(e);
-        }
+        channel.startMessage(MessageId.DRAW_SLOT);
+        send(true);
+        return reply(Serdes.INTEGER, BinarySerdes.INTEGER);
     }
 
     @Override
     public Route claimedRoute() {
-        sendMessage(MessageId.ROUTE, "");
-        try {
-            return Serdes.ROUTE.deserialize(r.readLine());
-        } catch (IOException e) {
-            throw new UncheckedIOException(e);
-        }
+        channel.startMessage(MessageId.ROUTE);
+        send(true);
+        return reply(Serdes.ROUTE, BinarySerdes.ROUTE);
     }
 
     @Override
     public SortedBag<Card> initialClaimCards() {
-        sendMessage(MessageId.CARDS, "");
-        try {
-            return Serdes.BAG_OF_CARD.deserialize(r.readLine());
-        } catch (IOException e) {
-            throw new UncheckedIOException(e);
-        }
+        channel.startMessage(MessageId.CARDS);
+        send(true);
+        return reply(Serdes.BAG_OF_CARD, BinarySerdes.BAG_OF_CARD);
     }
 
     @Override
     public SortedBag<Card> chooseAdditionalCards(
             List<SortedBag<Card>> options) {
-        String serialized = Serdes.LIST_OF_BAG_OF_CARD.serialize(options);
-        sendMessage(MessageId.CHOOSE_ADDITIONAL_CARDS, serialized);
-        try {
-            return Serdes.BAG_OF_CARD.deserialize(r.readLine());
-        } catch (IOException e) {
-            throw new UncheckedIOException(e);
-        }
+        channel.startMessage(MessageId.CHOOSE_ADDITIONAL_CARDS);
+        channel.write(Serdes.LIST_OF_BAG_OF_CARD,
+                BinarySerdes.LIST_OF_BAG_OF_CARD, options);
+        send(true);
+        return reply(Serdes.BAG_OF_CARD, BinarySerdes.BAG_OF_CARD);
     }
 
-    private void sendMessage(MessageId method, String arguments) {
-        String message = method.name() + " " + arguments;
-        try {
-            w.write(message);
-            w.write('\n');
-            w.flush();
-        } catch (IOException e) {
-            throw new UncheckedIOException(e);
+    private void send(boolean expectsReply) {
+        channel.send();
+        ++pendingMessages;
+        ++messagesSent;
+        if (expectsReply || !coalesceWrites) {
+            flush();
         }
     }
 
+    private <E> E reply(Serde<E> serde, BinarySerde<E> binarySerde) {
+        channel.receiveReply();
+        return channel.read(serde, binarySerde);
+    }
+
 }
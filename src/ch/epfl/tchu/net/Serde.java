@@ -6,10 +6,11 @@
 package ch.epfl.tchu.net;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.StringJoiner;
 import java.util.function.Function;
-import java.util.regex.Pattern;
 
 import ch.epfl.tchu.SortedBag;
 
@@ -33,6 +34,22 @@ public interface Serde<E> {
      */
     public abstract String serialize(E toSerialize);
 
+    /**
+     * Méthode qui désérialise la portion de la séquence de caractères "text"
+     * comprise entre les index "start" (inclus) et "end" (exclus), sans en
+     * extraire de sous-chaîne
+     * 
+     * @param text(CharSequence)
+     *            la séquence contenant la sérialisation
+     * @param start(int)
+     *            l'index du premier caractère de la sérialisation
+     * @param end(int)
+     *            l'index suivant le dernier caractère de la sérialisation
+     * @return l'objet dont la sérialisation correspond à la portion de "text"
+     *         donnée
+     */
+    public abstract E deserialize(CharSequence text, int start, int end);
+
     /**
      * Méthode qui désérialise la chaine de caractères "toDeserialize" donnée en
      * paramètre
@@ -42,7 +59,9 @@ public interface Serde<E> {
      * @return l'objet dont la sérialization correspond à la chaine de
      *         caractères "toDeserialize"
      */
-    public abstract E deserialize(String toDeserialize);
+    public default E deserialize(String toDeserialize) {
+        return deserialize(toDeserialize, 0, toDeserialize.length());
+    }
 
     /**
      * Méthode qui retourne un serde permettant de (dé)sérialiser un objet au
@@ -62,15 +81,44 @@ public interface Serde<E> {
                 return serializer.apply(toSerialize);
             }
 
-            public E deserialize(String toDeserialize) {
-                return deserializer.apply(toDeserialize);
+            public E deserialize(CharSequence text, int start, int end) {
+                return deserializer
+                        .apply(text.subSequence(start, end).toString());
+            }
+        };
+    }
+
+    /**
+     * Méthode qui retourne un serde permettant de (dé)sérialiser un objet au
+     * moyen de la fonction de sérialisation donnée et d'une fonction de
+     * désérialisation travaillant directement sur une portion de séquence de
+     * caractères
+     * 
+     * @param <E>
+     *            le type de l'objet à (dé)sérialiser
+     * @param serializer(Function<E,
+     *            String>) la fonction de sérialisation
+     * @param deserializer(RangeDeserializer<E>)
+     *            la fonction de désérialisation
+     * @return le serde permettant de (dé)sérialiser un objet de type E
+     */
+    public static <E> Serde<E> of(Function<E, String> serializer,
+            RangeDeserializer<E> deserializer) {
+        return new Serde<E>() {
+            public String serialize(E toSerialize) {
+                return serializer.apply(toSerialize);
+            }
+
+            public E deserialize(CharSequence text, int start, int end) {
+                return deserializer.deserialize(text, start, end);
             }
         };
     }
 
     /**
      * Méthode qui retourne un serde permettant de (dé)sérialiser un objet de la
-     * liste donnée en paramètre
+     * liste donnée en paramètre ; l'index de chaque objet est calculé une fois
+     * pour toutes, de sorte que la sérialisation ne parcourt pas la liste
      * 
      * @param <E>
      *            le type des objets contenus dans la liste "values"
@@ -79,14 +127,15 @@ public interface Serde<E> {
      * @return un serde permettant de (dé)sérialiser un objet de "values"
      */
     public static <E> Serde<E> oneOf(List<E> values) {
+        Map<E, Integer> indexes = indexes(values);
         return new Serde<E>() {
             public String serialize(E toSerialize) {
-                return Integer.toString(values.indexOf(toSerialize));
+                return Integer.toString(indexes.getOrDefault(toSerialize, -1));
             }
 
-            public E deserialize(String toDeserialize) {
-                return toDeserialize == "" ? null
-                        : values.get(Integer.parseInt(toDeserialize));
+            public E deserialize(CharSequence text, int start, int end) {
+                return start == end ? null
+                        : values.get(Integer.parseInt(text, start, end, 10));
             }
         };
     }
@@ -115,14 +164,15 @@ public interface Serde<E> {
                 return serialized.toString();
             }
 
-            public List<E> deserialize(String toDeserialize) {
+            public List<E> deserialize(CharSequence text, int start,
+                    int end) {
                 List<E> deserialized = new ArrayList<>();
-                String[] serialized = toDeserialize
-                        .split(Pattern.quote(String.valueOf(separator)), -1);
-                for (String s : serialized) {
-                    if (!s.isEmpty()) {
-                        deserialized.add(serde.deserialize(s));
+                for (int i = start; i <= end;) {
+                    int next = indexOf(text, separator, i, end);
+                    if (next > i) {
+                        deserialized.add(serde.deserialize(text, i, next));
                     }
+                    i = next + 1;
                 }
                 return deserialized;
             }
@@ -155,17 +205,84 @@ public interface Serde<E> {
                 return serialized.toString();
             }
 
-            public SortedBag<E> deserialize(String toDeserialize) {
+            public SortedBag<E> deserialize(CharSequence text, int start,
+                    int end) {
                 SortedBag.Builder<E> deserialized = new SortedBag.Builder<E>();
-                String[] serialized = toDeserialize
-                        .split(Pattern.quote(String.valueOf(separator)), -1);
-                for (String s : serialized) {
-                    if (!s.isEmpty()) {
-                        deserialized.add(serde.deserialize(s));
+                for (int i = start; i <= end;) {
+                    int next = indexOf(text, separator, i, end);
+                    if (next > i) {
+                        deserialized.add(serde.deserialize(text, i, next));
                     }
+                    i = next + 1;
                 }
                 return deserialized.build();
             }
         };
     }
+
+    /**
+     * Méthode qui retourne la table associant à chaque objet de la liste
+     * donnée l'index de sa première occurrence dans celle-ci
+     * 
+     * @param <E>
+     *            le type des objets contenus dans la liste "values"
+     * @param values(List)
+     *            la liste à indexer
+     * @return la table associant à chaque objet son index
+     */
+    public static <E> Map<E, Integer> indexes(List<E> values) {
+        Map<E, Integer> indexes = new HashMap<>();
+        for (int i = values.size() - 1; i >= 0; --i) {
+            indexes.put(values.get(i), i);
+        }
+        return indexes;
+    }
+
+    /**
+     * Méthode qui retourne l'index de la première occurrence du caractère "c"
+     * dans la portion de "text" comprise entre "start" (inclus) et "end"
+     * (exclus), ou "end" s'il n'y apparaît pas
+     * 
+     * @param text(CharSequence)
+     *            la séquence dans laquelle chercher
+     * @param c(char)
+     *            le caractère cherché
+     * @param start(int)
+     *            l'index à partir duquel chercher
+     * @param end(int)
+     *            l'index auquel s'arrêter
+     * @return l'index de la première occurrence de "c", ou "end"
+     */
+    public static int indexOf(CharSequence text, char c, int start, int end) {
+        for (int i = start; i < end; ++i) {
+            if (text.charAt(i) == c) {
+                return i;
+            }
+        }
+        return end;
+    }
+
+    /**
+     * Interface représentant une fonction de désérialisation travaillant
+     * directement sur une portion de séquence de caractères
+     * 
+     * @param <E>
+     *            le type des valeurs désérialisées
+     */
+    @FunctionalInterface
+    public interface RangeDeserializer<E> {
+        /**
+         * Méthode qui désérialise la portion de "text" comprise entre
+         * "start" (inclus) et "end" (exclus)
+         * 
+         * @param text(CharSequence)
+         *            la séquence contenant la sérialisation
+         * @param start(int)
+         *            l'index du premier caractère de la sérialisation
+         * @param end(int)
+         *            l'index suivant le dernier caractère de la sérialisation
+         * @return l'objet désérialisé
+         */
+        public abstract E deserialize(CharSequence text, int start, int end);
+    }
 }
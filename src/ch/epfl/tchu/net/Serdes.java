@@ -9,11 +9,11 @@ import java.nio.charset.StandardCharsets;
 import java.util.Base64;
 import java.util.List;
 import java.util.Map;
-import java.util.regex.Pattern;
 
 import ch.epfl.tchu.SortedBag;
 import ch.epfl.tchu.game.Card;
 import ch.epfl.tchu.game.ChMap;
+import ch.epfl.tchu.game.InfoEvent;
 import ch.epfl.tchu.game.Player.TurnKind;
 import ch.epfl.tchu.game.PlayerId;
 import ch.epfl.tchu.game.PlayerState;
@@ -21,6 +21,7 @@ import ch.epfl.tchu.game.PublicCardState;
 import ch.epfl.tchu.game.PublicGameState;
 import ch.epfl.tchu.game.PublicPlayerState;
 import ch.epfl.tchu.game.Route;
+import ch.epfl.tchu.game.Station;
 import ch.epfl.tchu.game.Ticket;
 
 /**
@@ -30,13 +31,15 @@ import ch.epfl.tchu.game.Ticket;
  *
  */
 public final class Serdes {
-    public static final Serde<Integer> INTEGER = Serde
-            .of(i -> Integer.toString(i), Integer::parseInt);
+    public static final Serde<Integer> INTEGER = Serde.of(
+            i -> Integer.toString(i),
+            (t, start, end) -> Integer.parseInt(t, start, end, 10));
 
     public static final Serde<String> STRING = Serde.of(
             i -> Base64.getEncoder()
                     .encodeToString(i.getBytes(StandardCharsets.UTF_8)),
-            s -> new String(Base64.getDecoder().decode(s),
+            (t, start, end) -> new String(
+                    Base64.getDecoder().decode(asciiBytes(t, start, end)),
                     StandardCharsets.UTF_8));
 
     public static final Serde<PlayerId> PLAYER_ID = Serde.oneOf(PlayerId.ALL);
@@ -49,6 +52,12 @@ public final class Serdes {
 
     public static final Serde<Ticket> TICKET = Serde.oneOf(ChMap.tickets());
 
+    public static final Serde<Station> STATION = Serde
+            .oneOf(ChMap.stations());
+
+    public static final Serde<InfoEvent.Kind> INFO_EVENT_KIND = Serde
+            .oneOf(InfoEvent.Kind.ALL);
+
     public static final Serde<List<String>> LIST_OF_STRING = Serde
             .listOf(STRING, ',');
 
@@ -72,12 +81,13 @@ public final class Serdes {
                     List.of(LIST_OF_CARD.serialize(i.faceUpCards()),
                             INTEGER.serialize(i.deckSize()),
                             INTEGER.serialize(i.discardsSize()))),
-                    s -> {
-                        String[] serialized = s.split(Pattern.quote(";"), -1);
+                    (t, start, end) -> {
+                        int end0 = Serde.indexOf(t, ';', start, end);
+                        int end1 = Serde.indexOf(t, ';', end0 + 1, end);
                         return new PublicCardState(
-                                LIST_OF_CARD.deserialize(serialized[0]),
-                                INTEGER.deserialize(serialized[1]),
-                                INTEGER.deserialize(serialized[2]));
+                                LIST_OF_CARD.deserialize(t, start, end0),
+                                INTEGER.deserialize(t, end0 + 1, end1),
+                                INTEGER.deserialize(t, end1 + 1, end));
                     });
 
     public static final Serde<PublicPlayerState> PUBLIC_PLAYER_STATE = Serde
@@ -85,12 +95,13 @@ public final class Serdes {
                     List.of(INTEGER.serialize(i.ticketCount()),
                             INTEGER.serialize(i.cardCount()),
                             LIST_OF_ROUTE.serialize(i.routes()))),
-                    s -> {
-                        String[] serialized = s.split(Pattern.quote(";"), -1);
+                    (t, start, end) -> {
+                        int end0 = Serde.indexOf(t, ';', start, end);
+                        int end1 = Serde.indexOf(t, ';', end0 + 1, end);
                         return new PublicPlayerState(
-                                INTEGER.deserialize(serialized[0]),
-                                INTEGER.deserialize(serialized[1]),
-                                LIST_OF_ROUTE.deserialize(serialized[2]));
+                                INTEGER.deserialize(t, start, end0),
+                                INTEGER.deserialize(t, end0 + 1, end1),
+                                LIST_OF_ROUTE.deserialize(t, end1 + 1, end));
                     });
 
     public static final Serde<PlayerState> PLAYER_STATE = Serde
@@ -98,17 +109,31 @@ public final class Serdes {
                     List.of(BAG_OF_TICKET.serialize(i.tickets()),
                             BAG_OF_CARD.serialize(i.cards()),
                             LIST_OF_ROUTE.serialize(i.routes()))),
-                    s -> {
-                        String[] serialized = s.split(Pattern.quote(";"), -1);
+                    (t, start, end) -> {
+                        int end0 = Serde.indexOf(t, ';', start, end);
+                        int end1 = Serde.indexOf(t, ';', end0 + 1, end);
                         return new PlayerState(
-                                BAG_OF_TICKET.deserialize(serialized[0]),
-                                BAG_OF_CARD.deserialize(serialized[1]),
-                                LIST_OF_ROUTE.deserialize(serialized[2]));
+                                BAG_OF_TICKET.deserialize(t, start, end0),
+                                BAG_OF_CARD.deserialize(t, end0 + 1, end1),
+                                LIST_OF_ROUTE.deserialize(t, end1 + 1, end));
                     });
 
     public static final Serde<PublicGameState> PUBLIC_GAME_STATE = Serde.of(
             i -> publicGameStateSerializer(i),
-            s -> publicGameStateDeserializer(s));
+            (t, start, end) -> publicGameStateDeserializer(t, start, end));
+
+    public static final Serde<InfoEvent> INFO_EVENT = Serde.of(
+            i -> String.join(":", List.of(INFO_EVENT_KIND.serialize(i.kind()),
+                    PLAYER_ID.serialize(i.playerId()),
+                    INTEGER.serialize(i.count()),
+                    INTEGER.serialize(i.otherCount()),
+                    i.card() == null ? "" : CARD.serialize(i.card()),
+                    i.route() == null ? "" : ROUTE.serialize(i.route()),
+                    BAG_OF_CARD.serialize(i.cards()),
+                    i.station1() == null ? "" : STATION.serialize(i.station1()),
+                    i.station2() == null ? ""
+                            : STATION.serialize(i.station2()))),
+            (t, start, end) -> infoEventDeserializer(t, start, end));
 
     private Serdes() {
 
@@ -135,25 +160,86 @@ public final class Serdes {
     }
 
     /**
-     * Méthode qui désérialise un objet de type PublicGameState
+     * Méthode qui désérialise un objet de type PublicGameState à partir de la
+     * portion de "t" comprise entre "start" (inclus) et "end" (exclus)
      * 
-     * @param s(String)
-     *            la sérialisation sous forme de chaîne de caractères
+     * @param t(CharSequence)
+     *            la séquence contenant la sérialisation
+     * @param start(int)
+     *            l'index du premier caractère de la sérialisation
+     * @param end(int)
+     *            l'index suivant le dernier caractère de la sérialisation
      * @return l'objet désérialisé
      */
-    private static PublicGameState publicGameStateDeserializer(String s) {
-        String[] serialized = s.split(Pattern.quote(":"), -1);
-        PlayerId lastPlayer = null;
-        if (!serialized[5].isEmpty()) {
-            lastPlayer = PLAYER_ID.deserialize(serialized[5]);
-        }
-        return new PublicGameState(INTEGER.deserialize(serialized[0]),
-                PUBLIC_CARD_STATE.deserialize(serialized[1]),
-                PLAYER_ID.deserialize(serialized[2]),
+    private static PublicGameState publicGameStateDeserializer(CharSequence t,
+            int start, int end) {
+        int end0 = Serde.indexOf(t, ':', start, end);
+        int end1 = Serde.indexOf(t, ':', end0 + 1, end);
+        int end2 = Serde.indexOf(t, ':', end1 + 1, end);
+        int end3 = Serde.indexOf(t, ':', end2 + 1, end);
+        int end4 = Serde.indexOf(t, ':', end3 + 1, end);
+        // le dernier joueur, s'il est inconnu, est sérialisé comme une chaîne
+        // vide, que PLAYER_ID désérialise en null
+        return new PublicGameState(INTEGER.deserialize(t, start, end0),
+                PUBLIC_CARD_STATE.deserialize(t, end0 + 1, end1),
+                PLAYER_ID.deserialize(t, end1 + 1, end2),
                 Map.of(PlayerId.PLAYER_1,
-                        PUBLIC_PLAYER_STATE.deserialize(serialized[3]),
+                        PUBLIC_PLAYER_STATE.deserialize(t, end2 + 1, end3),
                         PlayerId.PLAYER_2,
-                        PUBLIC_PLAYER_STATE.deserialize(serialized[4])),
-                lastPlayer);
+                        PUBLIC_PLAYER_STATE.deserialize(t, end3 + 1, end4)),
+                PLAYER_ID.deserialize(t, end4 + 1, end));
+    }
+
+    /**
+     * Méthode qui désérialise un objet de type InfoEvent à partir de la
+     * portion de "t" comprise entre "start" (inclus) et "end" (exclus)
+     * 
+     * @param t(CharSequence)
+     *            la séquence contenant la sérialisation
+     * @param start(int)
+     *            l'index du premier caractère de la sérialisation
+     * @param end(int)
+     *            l'index suivant le dernier caractère de la sérialisation
+     * @return l'objet désérialisé
+     */
+    private static InfoEvent infoEventDeserializer(CharSequence t, int start,
+            int end) {
+        int end0 = Serde.indexOf(t, ':', start, end);
+        int end1 = Serde.indexOf(t, ':', end0 + 1, end);
+        int end2 = Serde.indexOf(t, ':', end1 + 1, end);
+        int end3 = Serde.indexOf(t, ':', end2 + 1, end);
+        int end4 = Serde.indexOf(t, ':', end3 + 1, end);
+        int end5 = Serde.indexOf(t, ':', end4 + 1, end);
+        int end6 = Serde.indexOf(t, ':', end5 + 1, end);
+        int end7 = Serde.indexOf(t, ':', end6 + 1, end);
+        return new InfoEvent(INFO_EVENT_KIND.deserialize(t, start, end0),
+                PLAYER_ID.deserialize(t, end0 + 1, end1),
+                INTEGER.deserialize(t, end1 + 1, end2),
+                INTEGER.deserialize(t, end2 + 1, end3),
+                CARD.deserialize(t, end3 + 1, end4),
+                ROUTE.deserialize(t, end4 + 1, end5),
+                BAG_OF_CARD.deserialize(t, end5 + 1, end6),
+                STATION.deserialize(t, end6 + 1, end7),
+                STATION.deserialize(t, end7 + 1, end));
+    }
+
+    /**
+     * Méthode qui retourne les octets des caractères ASCII de la portion de
+     * "t" comprise entre "start" (inclus) et "end" (exclus)
+     * 
+     * @param t(CharSequence)
+     *            la séquence de caractères ASCII
+     * @param start(int)
+     *            l'index du premier caractère
+     * @param end(int)
+     *            l'index suivant le dernier caractère
+     * @return les octets correspondants
+     */
+    private static byte[] asciiBytes(CharSequence t, int start, int end) {
+        byte[] bytes = new byte[end - start];
+        for (int i = start; i < end; ++i) {
+            bytes[i - start] = (byte) t.charAt(i);
+        }
+        return bytes;
     }
 }
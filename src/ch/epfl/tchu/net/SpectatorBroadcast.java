@@ -0,0 +1,428 @@
+/*
+ *	Author:      Ahmed Kallala (315594)
+ *	Date:        9 juin 2021
+ */
+
+package ch.epfl.tchu.net;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.Channels;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.Card;
+import ch.epfl.tchu.game.InfoEvent;
+import ch.epfl.tchu.game.Player;
+import ch.epfl.tchu.game.PlayerId;
+import ch.epfl.tchu.game.PlayerState;
+import ch.epfl.tchu.game.PublicGameState;
+import ch.epfl.tchu.game.Route;
+import ch.epfl.tchu.game.Ticket;
+
+/**
+ * Classe représentant la diffusion d'une partie en cours à des spectateurs :
+ * l'état public et les informations reçus par l'un des joueurs (voir observe)
+ * sont sérialisés une seule fois, et les mêmes octets sont envoyés à tous les
+ * spectateurs abonnés (messages SPECTATE_INIT, SPECTATE_STATE,
+ * SPECTATE_STATE_DELTA et RECEIVE_INFO_EVENT).
+ * 
+ * Les envois ne bloquent jamais la partie : ce que la prise d'un spectateur
+ * n'accepte pas immédiatement est conservé et envoyé par le fil d'exécution
+ * du sélecteur donné. Un spectateur dont les données en attente dépassent
+ * MAX_QUEUED_BYTES perd ces dernières et reçoit à la place un état complet,
+ * à partir duquel les deltas suivants s'appliquent
+ * 
+ * @author ahmedkallala
+ *
+ */
+final class SpectatorBroadcast {
+    // Nombre maximal de deltas envoyés à la suite avant un état complet
+    private static final int KEYFRAME_INTERVAL = 32;
+    // Données en attente au-delà desquelles un spectateur est resynchronisé ;
+    // le tampon d'envoi de sa prise est limité pour que le retard accumulé
+    // soit effectivement visible ici
+    private static final int MAX_QUEUED_BYTES = 1 << 14;
+    private static final int SEND_BUFFER_SIZE = 1 << 13;
+
+    private final Selector selector;
+    private final MessageChannel encoder;
+    private final ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+    private final List<Subscriber> subscribers = new ArrayList<>();
+    private ByteBuffer init = null;
+    private PublicGameState lastState = null;
+    private ByteBuffer keyframe = null;
+    private int updatesSinceKeyframe = 0;
+    private long resyncs = 0;
+    private boolean closed = false;
+
+    /**
+     * Constructeur de SpectatorBroadcast
+     * 
+     * @param protocol(Protocol)
+     *            le protocole utilisé pour communiquer avec les spectateurs
+     * @param selector(Selector)
+     *            le sélecteur dont le fil d'exécution appelle ready lorsque la
+     *            prise d'un spectateur est prête
+     */
+    SpectatorBroadcast(Protocol protocol, Selector selector) {
+        this.selector = selector;
+        WritableByteChannel out = Channels.newChannel(encoded);
+        this.encoder = MessageChannel.of(
+                Channels.newChannel(InputStream.nullInputStream()), out,
+                protocol);
+    }
+
+    /**
+     * Méthode qui retourne un joueur se comportant comme "player", mais dont
+     * les noms des joueurs, les informations et l'état public reçus sont
+     * également diffusés aux spectateurs
+     * 
+     * @param player(Player)
+     *            le joueur observé
+     * @return le joueur observé, dont les messages sont diffusés
+     */
+    Player observe(Player player) {
+        return new Observer(player);
+    }
+
+    /**
+     * Méthode qui abonne le spectateur connecté au canal donné, qui est
+     * passé en mode non bloquant et enregistré auprès du sélecteur ; il
+     * reçoit immédiatement les noms des joueurs et l'état courant de la
+     * partie, s'ils sont connus, puis tous les messages suivants
+     * 
+     * @param channel(SocketChannel)
+     *            le canal connecté au spectateur
+     * @throws IOException
+     *             si le canal ne peut être enregistré auprès du sélecteur
+     */
+    synchronized void subscribe(SocketChannel channel) throws IOException {
+        channel.configureBlocking(false);
+        channel.setOption(StandardSocketOptions.SO_SNDBUF, SEND_BUFFER_SIZE);
+        Subscriber subscriber = new Subscriber(channel);
+        // Un spectateur n'envoie rien : une prise lisible a été fermée
+        subscriber.key = channel.register(selector, SelectionKey.OP_READ,
+                subscriber);
+        if (closed) {
+            subscriber.close();
+            return;
+        }
+        subscribers.add(subscriber);
+        resync(subscriber);
+        subscriber.write();
+    }
+
+    /**
+     * Méthode appelée par le fil d'exécution du sélecteur lorsque la prise
+     * d'un spectateur, dont la clé est donnée, est prête : elle envoie les
+     * données en attente ou, si le spectateur s'est déconnecté, le désabonne
+     * 
+     * @param key(SelectionKey)
+     *            la clé sélectionnée, dont l'attachement est un spectateur
+     */
+    static void ready(SelectionKey key) {
+        Subscriber subscriber = (Subscriber) key.attachment();
+        synchronized (subscriber.broadcast()) {
+            try {
+                if (key.isReadable() && subscriber.channel
+                        .read(ByteBuffer.allocate(1)) == -1) {
+                    subscriber.close();
+                } else if (key.isWritable()) {
+                    subscriber.write();
+                }
+            } catch (IOException | CancelledKeyException e) {
+                subscriber.close();
+            }
+        }
+    }
+
+    /**
+     * Méthode qui termine la diffusion : les spectateurs sont déconnectés une
+     * fois les données en attente envoyées
+     */
+    synchronized void close() {
+        closed = true;
+        init = null;
+        lastState = null;
+        keyframe = null;
+        for (Subscriber subscriber : new ArrayList<>(subscribers)) {
+            if (subscriber.queue.isEmpty()) {
+                subscriber.close();
+            }
+        }
+    }
+
+    /**
+     * Méthode qui retourne vrai si et seulement si la diffusion est terminée
+     * 
+     * @return vrai si la diffusion est terminée
+     */
+    synchronized boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Méthode qui retourne le nombre de spectateurs abonnés
+     * 
+     * @return le nombre de spectateurs abonnés
+     */
+    synchronized int subscribers() {
+        return subscribers.size();
+    }
+
+    /**
+     * Méthode qui retourne le nombre de fois qu'un spectateur trop lent a
+     * perdu ses données en attente au profit d'un état complet
+     * 
+     * @return le nombre de resynchronisations
+     */
+    synchronized long resyncs() {
+        return resyncs;
+    }
+
+    private synchronized void publishInit(Map<PlayerId, String> playerNames) {
+        encoder.startMessage(MessageId.SPECTATE_INIT);
+        encoder.write(Serdes.LIST_OF_STRING, BinarySerdes.LIST_OF_STRING,
+                List.of(playerNames.get(PlayerId.PLAYER_1),
+                        playerNames.get(PlayerId.PLAYER_2)));
+        init = encode();
+        publish(init);
+    }
+
+    private synchronized void publishInfo(InfoEvent event) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        encoder.startMessage(MessageId.RECEIVE_INFO_EVENT);
+        encoder.write(Serdes.INFO_EVENT, BinarySerdes.INFO_EVENT, event);
+        publish(encode());
+    }
+
+    private synchronized void publishState(PublicGameState newState) {
+        // Sans spectateur, seul l'état courant est conservé : un nouvel
+        // abonné reçoit d'abord un état complet, dont partent les deltas
+        if (subscribers.isEmpty()) {
+            lastState = newState;
+            keyframe = null;
+            return;
+        }
+        int changes = lastState != null
+                && updatesSinceKeyframe < KEYFRAME_INTERVAL
+                        ? StateDelta.changes(lastState, newState)
+                        : StateDelta.NOT_ENCODABLE;
+        PublicGameState previousState = lastState;
+        lastState = newState;
+        keyframe = null;
+        if (changes == StateDelta.NOT_ENCODABLE) {
+            updatesSinceKeyframe = 0;
+            publish(keyframe());
+        } else {
+            encoder.startMessage(MessageId.SPECTATE_STATE_DELTA);
+            StateDelta.write(encoder, changes, previousState, newState);
+            ++updatesSinceKeyframe;
+            publish(encode());
+        }
+    }
+
+    private void publish(ByteBuffer message) {
+        for (Subscriber subscriber : new ArrayList<>(subscribers)) {
+            if (subscriber.queuedBytes
+                    + message.remaining() > MAX_QUEUED_BYTES) {
+                ++resyncs;
+                resync(subscriber);
+            } else {
+                subscriber.enqueue(message);
+            }
+            subscriber.write();
+        }
+    }
+
+    // Remplace les données en attente du spectateur (sauf un message déjà
+    // partiellement envoyé) par les noms des joueurs et l'état courant
+    private void resync(Subscriber subscriber) {
+        ByteBuffer partial = subscriber.queue.peekFirst();
+        subscriber.queue.clear();
+        subscriber.queuedBytes = 0;
+        if (partial != null && partial.position() > 0) {
+            subscriber.queue.add(partial);
+            subscriber.queuedBytes = partial.remaining();
+        }
+        if (init != null) {
+            subscriber.enqueue(init);
+        }
+        if (lastState != null) {
+            subscriber.enqueue(keyframe());
+        }
+    }
+
+    private ByteBuffer keyframe() {
+        if (keyframe == null) {
+            encoder.startMessage(MessageId.SPECTATE_STATE);
+            encoder.write(Serdes.PUBLIC_GAME_STATE,
+                    BinarySerdes.PUBLIC_GAME_STATE, lastState);
+            keyframe = encode();
+        }
+        return keyframe;
+    }
+
+    // Termine le message en cours de construction et retourne ses octets,
+    // partagés (en lecture seule) par tous les spectateurs
+    private ByteBuffer encode() {
+        encoder.send();
+        encoder.flush();
+        ByteBuffer message = ByteBuffer.wrap(encoded.toByteArray())
+                .asReadOnlyBuffer();
+        encoded.reset();
+        return message;
+    }
+
+    private final class Subscriber {
+        private final SocketChannel channel;
+        private final Deque<ByteBuffer> queue = new ArrayDeque<>();
+        private int queuedBytes = 0;
+        private SelectionKey key = null;
+
+        private Subscriber(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        private SpectatorBroadcast broadcast() {
+            return SpectatorBroadcast.this;
+        }
+
+        private void enqueue(ByteBuffer message) {
+            queue.add(message.duplicate());
+            queuedBytes += message.remaining();
+        }
+
+        // Envoie sans bloquer autant de données en attente que la prise en
+        // accepte, et demande au sélecteur de signaler quand elle sera de
+        // nouveau prête s'il en reste
+        private void write() {
+            try {
+                if (!queue.isEmpty()) {
+                    queuedBytes -= channel
+                            .write(queue.toArray(new ByteBuffer[0]));
+                    while (!queue.isEmpty()
+                            && !queue.peekFirst().hasRemaining()) {
+                        queue.removeFirst();
+                    }
+                }
+                if (queue.isEmpty() && closed) {
+                    close();
+                    return;
+                }
+                int interest = queue.isEmpty() ? SelectionKey.OP_READ
+                        : SelectionKey.OP_READ | SelectionKey.OP_WRITE;
+                if (key.interestOps() != interest) {
+                    key.interestOps(interest);
+                    selector.wakeup();
+                }
+            } catch (IOException | CancelledKeyException e) {
+                close();
+            }
+        }
+
+        private void close() {
+            subscribers.remove(this);
+            queue.clear();
+            queuedBytes = 0;
+            key.cancel();
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // le spectateur est de toute façon abandonné
+            }
+        }
+    }
+
+    // Joueur transmettant tous les appels au joueur observé, et diffusant ce
+    // qu'il reçoit et qui est public
+    private final class Observer implements Player {
+        private final Player player;
+
+        private Observer(Player player) {
+            this.player = player;
+        }
+
+        @Override
+        public void initPlayers(PlayerId ownId,
+                Map<PlayerId, String> playerNames) {
+            player.initPlayers(ownId, playerNames);
+            publishInit(playerNames);
+        }
+
+        @Override
+        public void receiveInfo(String info) {
+            player.receiveInfo(info);
+        }
+
+        @Override
+        public void receiveInfo(InfoEvent event,
+                Map<PlayerId, String> playerNames) {
+            player.receiveInfo(event, playerNames);
+            publishInfo(event);
+        }
+
+        @Override
+        public void updateState(PublicGameState newState,
+                PlayerState ownState) {
+            player.updateState(newState, ownState);
+            publishState(newState);
+        }
+
+        @Override
+        public void setInitialTicketChoice(SortedBag<Ticket> tickets) {
+            player.setInitialTicketChoice(tickets);
+        }
+
+        @Override
+        public SortedBag<Ticket> chooseInitialTickets() {
+            return player.chooseInitialTickets();
+        }
+
+        @Override
+        public TurnKind nextTurn() {
+            return player.nextTurn();
+        }
+
+        @Override
+        public SortedBag<Ticket> chooseTickets(SortedBag<Ticket> options) {
+            return player.chooseTickets(options);
+        }
+
+        @Override
+        public int drawSlot() {
+            return player.drawSlot();
+        }
+
+        @Override
+        public Route claimedRoute() {
+            return player.claimedRoute();
+        }
+
+        @Override
+        public SortedBag<Card> initialClaimCards() {
+            return player.initialClaimCards();
+        }
+
+        @Override
+        public SortedBag<Card> chooseAdditionalCards(
+                List<SortedBag<Card>> options) {
+            return player.chooseAdditionalCards(options);
+        }
+    }
+}
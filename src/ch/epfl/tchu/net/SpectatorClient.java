@@ -0,0 +1,119 @@
+/*
+ *	Author:      Ahmed Kallala (315594)
+ *	Date:        9 juin 2021
+ */
+
+package ch.epfl.tchu.net;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.SocketChannel;
+import java.util.List;
+import java.util.Map;
+
+import ch.epfl.tchu.game.InfoEvent;
+import ch.epfl.tchu.game.PlayerId;
+import ch.epfl.tchu.game.PublicGameState;
+
+/**
+ * Classe qui représente un client de spectateur, connecté au port des
+ * spectateurs d'un GameServer ; il ne fait que recevoir l'état public et les
+ * informations de la partie suivie
+ * 
+ * @author ahmedkallala
+ *
+ */
+public final class SpectatorClient {
+    /**
+     * Interface représentant ce qui est transmis à un spectateur
+     */
+    public interface Spectator {
+        /**
+         * Méthode appelée à chaque changement de l'état public de la partie
+         * 
+         * @param newState(PublicGameState)
+         *            le nouvel état public
+         */
+        void updateState(PublicGameState newState);
+
+        /**
+         * Méthode appelée pour chaque information sur le déroulement de la
+         * partie
+         * 
+         * @param info(String)
+         *            l'information, telle que les joueurs la reçoivent
+         */
+        void receiveInfo(String info);
+    }
+
+    private final Spectator spectator;
+    private final MessageChannel channel;
+
+    /**
+     * Constructeur de SpectatorClient
+     * 
+     * @param spectator(Spectator)
+     *            le spectateur auquel le client transmet la partie
+     * @param name(String)
+     *            le nom utilisé pour se connecter au serveur
+     * @param port(int)
+     *            le numéro du port des spectateurs du serveur
+     * @param protocol(Protocol)
+     *            le protocole utilisé pour communiquer, qui doit être celui du
+     *            serveur
+     */
+    public SpectatorClient(Spectator spectator, String name, int port,
+            Protocol protocol) {
+        this.spectator = spectator;
+        try {
+            this.channel = MessageChannel.of(
+                    SocketChannel.open(new InetSocketAddress(name, port)),
+                    protocol);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Méthode qui lance le client, elle transmet au spectateur les messages
+     * reçus jusqu'à ce que le serveur ferme la connexion, à la fin de la
+     * partie
+     */
+    public void run() {
+        // Un état complet (SPECTATE_STATE) précède toujours le premier delta,
+        // y compris après une resynchronisation
+        Map<PlayerId, String> playerNames = null;
+        PublicGameState lastState = null;
+        MessageId id;
+        while ((id = channel.receiveMessage()) != null) {
+            switch (id) {
+            case SPECTATE_INIT:
+                List<String> names = channel.read(Serdes.LIST_OF_STRING,
+                        BinarySerdes.LIST_OF_STRING);
+                playerNames = Map.of(PlayerId.PLAYER_1, names.get(0),
+                        PlayerId.PLAYER_2, names.get(1));
+                break;
+            case RECEIVE_INFO_EVENT:
+                InfoEvent event = channel.read(Serdes.INFO_EVENT,
+                        BinarySerdes.INFO_EVENT);
+                spectator.receiveInfo(event.message(playerNames));
+                break;
+            case SPECTATE_STATE:
+                lastState = channel.read(Serdes.PUBLIC_GAME_STATE,
+                        BinarySerdes.PUBLIC_GAME_STATE);
+                spectator.updateState(lastState);
+                break;
+            case SPECTATE_STATE_DELTA:
+                int changes = channel.read(Serdes.INTEGER,
+                        BinarySerdes.INTEGER);
+                lastState = StateDelta.readState(channel, changes, lastState);
+                spectator.updateState(lastState);
+                break;
+            default:
+                throw new UncheckedIOException(
+                        new IOException("unexpected message: " + id));
+            }
+        }
+    }
+}
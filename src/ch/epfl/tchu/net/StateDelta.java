@@ -0,0 +1,335 @@
+/*
+ *	Author:      Ahmed Kallala (315594)
+ *	Date:        4 juin 2021
+ */
+
+package ch.epfl.tchu.net;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.Card;
+import ch.epfl.tchu.game.PlayerId;
+import ch.epfl.tchu.game.PlayerState;
+import ch.epfl.tchu.game.PublicCardState;
+import ch.epfl.tchu.game.PublicGameState;
+import ch.epfl.tchu.game.PublicPlayerState;
+import ch.epfl.tchu.game.Route;
+import ch.epfl.tchu.game.Ticket;
+
+/**
+ * Classe contenant les méthodes permettant d'encoder un état de la partie
+ * comme la différence avec l'état envoyé précédemment (message
+ * UPDATE_STATE_DELTA, ou SPECTATE_STATE_DELTA pour l'état public seul) et de
+ * reconstruire l'état complet à partir de cette différence ; un delta
+ * commence par un masque indiquant les champs modifiés, suivi de la nouvelle
+ * valeur de chacun de ces champs
+ * 
+ * @author ahmedkallala
+ *
+ */
+final class StateDelta {
+    static final int NOT_ENCODABLE = -1;
+
+    private static final int TICKETS_COUNT = 1;
+    private static final int FACE_UP_CARDS = 1 << 1;
+    private static final int DECK_SIZE = 1 << 2;
+    private static final int DISCARDS_SIZE = 1 << 3;
+    private static final int CURRENT_PLAYER = 1 << 4;
+    private static final int LAST_PLAYER = 1 << 5;
+    // Les trois champs publics de chaque joueur, décalés de
+    // PLAYER_FIELDS_SHIFT * ordinal()
+    private static final int TICKET_COUNT = 1 << 6;
+    private static final int CARD_COUNT = 1 << 7;
+    private static final int NEW_ROUTES = 1 << 8;
+    private static final int PLAYER_FIELDS_SHIFT = 3;
+    private static final int OWN_NEW_TICKETS = 1 << 12;
+    private static final int OWN_CARDS = 1 << 13;
+
+    private StateDelta() {
+    }
+
+    /**
+     * Méthode qui retourne le masque des champs qui diffèrent entre l'état
+     * précédemment envoyé et le nouvel état, ou NOT_ENCODABLE si le nouvel
+     * état ne peut pas être décrit comme une différence (routes ou billets
+     * retirés, dernier joueur effacé, routes du joueur incohérentes)
+     * 
+     * @param ownId(PlayerId)
+     *            l'identité du joueur auquel les états sont envoyés
+     * @param previousState(PublicGameState)
+     *            l'état public précédemment envoyé
+     * @param previousOwnState(PlayerState)
+     *            l'état du joueur précédemment envoyé
+     * @param newState(PublicGameState)
+     *            le nouvel état public
+     * @param newOwnState(PlayerState)
+     *            le nouvel état du joueur
+     * @return le masque des champs modifiés, ou NOT_ENCODABLE
+     */
+    static int changes(PlayerId ownId, PublicGameState previousState,
+            PlayerState previousOwnState, PublicGameState newState,
+            PlayerState newOwnState) {
+        if (!newOwnState.tickets().contains(previousOwnState.tickets())
+                || !newOwnState.routes()
+                        .equals(newState.playerState(ownId).routes())) {
+            return NOT_ENCODABLE;
+        }
+        int changes = changes(previousState, newState);
+        if (changes == NOT_ENCODABLE) {
+            return NOT_ENCODABLE;
+        }
+        if (previousOwnState.tickets().size() != newOwnState.tickets()
+                .size()) {
+            changes |= OWN_NEW_TICKETS;
+        }
+        if (!previousOwnState.cards().equals(newOwnState.cards())) {
+            changes |= OWN_CARDS;
+        }
+        return changes;
+    }
+
+    /**
+     * Méthode qui retourne le masque des champs publics qui diffèrent entre
+     * l'état précédemment envoyé et le nouvel état, ou NOT_ENCODABLE si le
+     * nouvel état ne peut pas être décrit comme une différence (routes
+     * retirées, dernier joueur effacé) ; utilisée seule pour les spectateurs,
+     * qui ne reçoivent que l'état public
+     * 
+     * @param previousState(PublicGameState)
+     *            l'état public précédemment envoyé
+     * @param newState(PublicGameState)
+     *            le nouvel état public
+     * @return le masque des champs publics modifiés, ou NOT_ENCODABLE
+     */
+    static int changes(PublicGameState previousState,
+            PublicGameState newState) {
+        if (previousState.lastPlayer() != null
+                && newState.lastPlayer() == null) {
+            return NOT_ENCODABLE;
+        }
+        int changes = 0;
+        if (previousState.ticketsCount() != newState.ticketsCount()) {
+            changes |= TICKETS_COUNT;
+        }
+        PublicCardState previousCards = previousState.cardState();
+        PublicCardState newCards = newState.cardState();
+        if (!previousCards.faceUpCards().equals(newCards.faceUpCards())) {
+            changes |= FACE_UP_CARDS;
+        }
+        if (previousCards.deckSize() != newCards.deckSize()) {
+            changes |= DECK_SIZE;
+        }
+        if (previousCards.discardsSize() != newCards.discardsSize()) {
+            changes |= DISCARDS_SIZE;
+        }
+        if (previousState.currentPlayerId() != newState.currentPlayerId()) {
+            changes |= CURRENT_PLAYER;
+        }
+        if (previousState.lastPlayer() != newState.lastPlayer()) {
+            changes |= LAST_PLAYER;
+        }
+        for (PlayerId id : PlayerId.ALL) {
+            PublicPlayerState previousPlayer = previousState.playerState(id);
+            PublicPlayerState newPlayer = newState.playerState(id);
+            int shift = PLAYER_FIELDS_SHIFT * id.ordinal();
+            if (previousPlayer.ticketCount() != newPlayer.ticketCount()) {
+                changes |= TICKET_COUNT << shift;
+            }
+            if (previousPlayer.cardCount() != newPlayer.cardCount()) {
+                changes |= CARD_COUNT << shift;
+            }
+            List<Route> previousRoutes = previousPlayer.routes();
+            List<Route> newRoutes = newPlayer.routes();
+            if (newRoutes.size() < previousRoutes.size() || !newRoutes
+                    .subList(0, previousRoutes.size()).equals(previousRoutes)) {
+                return NOT_ENCODABLE;
+            }
+            if (newRoutes.size() > previousRoutes.size()) {
+                changes |= NEW_ROUTES << shift;
+            }
+        }
+        return changes;
+    }
+
+    /**
+     * Méthode qui ajoute au message en cours de construction le masque
+     * "changes" puis les nouvelles valeurs des champs qu'il désigne
+     * 
+     * @param channel(MessageChannel)
+     *            l'extrémité de connexion sur laquelle écrire
+     * @param changes(int)
+     *            le masque retourné par changes
+     * @param previousState(PublicGameState)
+     *            l'état public précédemment envoyé
+     * @param previousOwnState(PlayerState)
+     *            l'état du joueur précédemment envoyé
+     * @param newState(PublicGameState)
+     *            le nouvel état public
+     * @param newOwnState(PlayerState)
+     *            le nouvel état du joueur
+     */
+    static void write(MessageChannel channel, int changes,
+            PublicGameState previousState, PlayerState previousOwnState,
+            PublicGameState newState, PlayerState newOwnState) {
+        write(channel, changes, previousState, newState);
+        if ((changes & OWN_NEW_TICKETS) != 0) {
+            channel.write(Serdes.BAG_OF_TICKET, BinarySerdes.BAG_OF_TICKET,
+                    newOwnState.tickets()
+                            .difference(previousOwnState.tickets()));
+        }
+        if ((changes & OWN_CARDS) != 0) {
+            channel.write(Serdes.BAG_OF_CARD, BinarySerdes.BAG_OF_CARD,
+                    newOwnState.cards());
+        }
+    }
+
+    /**
+     * Méthode qui ajoute au message en cours de construction le masque
+     * "changes" puis les nouvelles valeurs des champs publics qu'il désigne
+     * 
+     * @param channel(MessageChannel)
+     *            l'extrémité de connexion sur laquelle écrire
+     * @param changes(int)
+     *            le masque retourné par changes
+     * @param previousState(PublicGameState)
+     *            l'état public précédemment envoyé
+     * @param newState(PublicGameState)
+     *            le nouvel état public
+     */
+    static void write(MessageChannel channel, int changes,
+            PublicGameState previousState, PublicGameState newState) {
+        channel.write(Serdes.INTEGER, BinarySerdes.INTEGER, changes);
+        if ((changes & TICKETS_COUNT) != 0) {
+            channel.write(Serdes.INTEGER, BinarySerdes.INTEGER,
+                    newState.ticketsCount());
+        }
+        if ((changes & FACE_UP_CARDS) != 0) {
+            channel.write(Serdes.LIST_OF_CARD, BinarySerdes.LIST_OF_CARD,
+                    newState.cardState().faceUpCards());
+        }
+        if ((changes & DECK_SIZE) != 0) {
+            channel.write(Serdes.INTEGER, BinarySerdes.INTEGER,
+                    newState.cardState().deckSize());
+        }
+        if ((changes & DISCARDS_SIZE) != 0) {
+            channel.write(Serdes.INTEGER, BinarySerdes.INTEGER,
+                    newState.cardState().discardsSize());
+        }
+        if ((changes & CURRENT_PLAYER) != 0) {
+            channel.write(Serdes.PLAYER_ID, BinarySerdes.PLAYER_ID,
+                    newState.currentPlayerId());
+        }
+        if ((changes & LAST_PLAYER) != 0) {
+            channel.write(Serdes.PLAYER_ID, BinarySerdes.PLAYER_ID,
+                    newState.lastPlayer());
+        }
+        for (PlayerId id : PlayerId.ALL) {
+            PublicPlayerState newPlayer = newState.playerState(id);
+            int shift = PLAYER_FIELDS_SHIFT * id.ordinal();
+            if ((changes & (TICKET_COUNT << shift)) != 0) {
+                channel.write(Serdes.INTEGER, BinarySerdes.INTEGER,
+                        newPlayer.ticketCount());
+            }
+            if ((changes & (CARD_COUNT << shift)) != 0) {
+                channel.write(Serdes.INTEGER, BinarySerdes.INTEGER,
+                        newPlayer.cardCount());
+            }
+            if ((changes & (NEW_ROUTES << shift)) != 0) {
+                List<Route> newRoutes = newPlayer.routes();
+                channel.write(Serdes.LIST_OF_ROUTE, BinarySerdes.LIST_OF_ROUTE,
+                        newRoutes.subList(
+                                previousState.playerState(id).routes().size(),
+                                newRoutes.size()));
+            }
+        }
+    }
+
+    /**
+     * Méthode qui lit les champs publics écrits par write, à la suite du
+     * masque, et en déduit le nouvel état public
+     * 
+     * @param channel(MessageChannel)
+     *            l'extrémité de connexion de laquelle lire
+     * @param changes(int)
+     *            le masque lu au début du delta
+     * @param previousState(PublicGameState)
+     *            l'état public précédemment reçu
+     * @return le nouvel état public
+     */
+    static PublicGameState readState(MessageChannel channel, int changes,
+            PublicGameState previousState) {
+        PublicCardState previousCards = previousState.cardState();
+        int ticketsCount = (changes & TICKETS_COUNT) != 0
+                ? channel.read(Serdes.INTEGER, BinarySerdes.INTEGER)
+                : previousState.ticketsCount();
+        List<Card> faceUpCards = (changes & FACE_UP_CARDS) != 0
+                ? channel.read(Serdes.LIST_OF_CARD, BinarySerdes.LIST_OF_CARD)
+                : previousCards.faceUpCards();
+        int deckSize = (changes & DECK_SIZE) != 0
+                ? channel.read(Serdes.INTEGER, BinarySerdes.INTEGER)
+                : previousCards.deckSize();
+        int discardsSize = (changes & DISCARDS_SIZE) != 0
+                ? channel.read(Serdes.INTEGER, BinarySerdes.INTEGER)
+                : previousCards.discardsSize();
+        PlayerId currentPlayerId = (changes & CURRENT_PLAYER) != 0
+                ? channel.read(Serdes.PLAYER_ID, BinarySerdes.PLAYER_ID)
+                : previousState.currentPlayerId();
+        PlayerId lastPlayer = (changes & LAST_PLAYER) != 0
+                ? channel.read(Serdes.PLAYER_ID, BinarySerdes.PLAYER_ID)
+                : previousState.lastPlayer();
+        Map<PlayerId, PublicPlayerState> playerStates = new EnumMap<>(
+                PlayerId.class);
+        for (PlayerId id : PlayerId.ALL) {
+            PublicPlayerState previousPlayer = previousState.playerState(id);
+            int shift = PLAYER_FIELDS_SHIFT * id.ordinal();
+            int ticketCount = (changes & (TICKET_COUNT << shift)) != 0
+                    ? channel.read(Serdes.INTEGER, BinarySerdes.INTEGER)
+                    : previousPlayer.ticketCount();
+            int cardCount = (changes & (CARD_COUNT << shift)) != 0
+                    ? channel.read(Serdes.INTEGER, BinarySerdes.INTEGER)
+                    : previousPlayer.cardCount();
+            List<Route> routes = previousPlayer.routes();
+            if ((changes & (NEW_ROUTES << shift)) != 0) {
+                routes = new ArrayList<>(routes);
+                routes.addAll(channel.read(Serdes.LIST_OF_ROUTE,
+                        BinarySerdes.LIST_OF_ROUTE));
+            }
+            playerStates.put(id,
+                    new PublicPlayerState(ticketCount, cardCount, routes));
+        }
+        return new PublicGameState(ticketsCount,
+                new PublicCardState(faceUpCards, deckSize, discardsSize),
+                currentPlayerId, playerStates, lastPlayer);
+    }
+
+    /**
+     * Méthode qui lit les champs du joueur écrits par write, à la suite de
+     * ceux lus par readState, et en déduit le nouvel état du joueur
+     * 
+     * @param channel(MessageChannel)
+     *            l'extrémité de connexion de laquelle lire
+     * @param changes(int)
+     *            le masque lu au début du delta
+     * @param previousOwnState(PlayerState)
+     *            l'état du joueur précédemment reçu
+     * @param routes(List<Route>)
+     *            les routes du joueur dans le nouvel état public
+     * @return le nouvel état du joueur
+     */
+    static PlayerState readOwnState(MessageChannel channel, int changes,
+            PlayerState previousOwnState, List<Route> routes) {
+        SortedBag<Ticket> tickets = previousOwnState.tickets();
+        if ((changes & OWN_NEW_TICKETS) != 0) {
+            tickets = tickets.union(channel.read(Serdes.BAG_OF_TICKET,
+                    BinarySerdes.BAG_OF_TICKET));
+        }
+        SortedBag<Card> cards = (changes & OWN_CARDS) != 0
+                ? channel.read(Serdes.BAG_OF_CARD, BinarySerdes.BAG_OF_CARD)
+                : previousOwnState.cards();
+        return new PlayerState(tickets, cards, routes);
+    }
+}